@@ -2,15 +2,21 @@ package com.example.dat.appointment.controller;
 
 
 import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.AppointmentSummaryDTO;
+import com.example.dat.appointment.dto.BulkAppointmentDTO;
+import com.example.dat.appointment.dto.BulkBookingResultDTO;
 import com.example.dat.appointment.service.AppointmentService;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 
 @RestController
@@ -25,9 +31,19 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.bookAppointment(appointmentDTO));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<Response<BulkBookingResultDTO>> bookAppointments(@RequestBody @Valid BulkAppointmentDTO bulkAppointmentDTO){
+        return ResponseEntity.ok(appointmentService.bookAppointments(bulkAppointmentDTO));
+    }
+
     @GetMapping
-    public  ResponseEntity<Response<List<AppointmentDTO>>> getMyAppointments(){
-        return ResponseEntity.ok(appointmentService.getMyAppointments());
+    public  ResponseEntity<Response<CursorPage<AppointmentSummaryDTO>>> getMyAppointments(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to){
+        return ResponseEntity.ok(appointmentService.getMyAppointments(cursor, size, status, from, to));
     }
 
     @PutMapping("/cancel/{appointmentId}")
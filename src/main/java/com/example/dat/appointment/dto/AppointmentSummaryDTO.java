@@ -0,0 +1,40 @@
+package com.example.dat.appointment.dto;
+
+
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.Specialization;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns shown in the appointment list view, filled directly by a JPQL constructor expression
+ * so listing never loads Appointment entities or their associations.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AppointmentSummaryDTO {
+
+    private Long id;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private AppointmentStatus status;
+    private String meetingLink;
+    private String purposeOfConsultation;
+
+    private Long doctorId;
+    private String doctorFirstName;
+    private String doctorLastName;
+    private Specialization doctorSpecialization;
+    private String doctorName;
+
+    private Long patientId;
+    private String patientFirstName;
+    private String patientLastName;
+    private String patientName;
+}
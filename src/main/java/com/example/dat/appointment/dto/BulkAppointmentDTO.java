@@ -0,0 +1,49 @@
+package com.example.dat.appointment.dto;
+
+
+import com.example.dat.enums.BulkBookingMode;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Books several sessions with one doctor. Either list the start times explicitly, or give a recurrence:
+ * firstStartTime repeated every repeatEveryDays days, occurrences times.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulkAppointmentDTO {
+
+    @NotNull(message = "Doctor ID is required for booking.")
+    private Long doctorId;
+
+    private String purposeOfConsultation;
+
+    private String initialSymptoms;
+
+    // explicit start times, takes precedence over the recurrence fields
+    private List<LocalDateTime> startTimes;
+
+    // recurrence
+    private LocalDateTime firstStartTime;
+
+    @Min(value = 1, message = "Recurrence interval must be at least one day.")
+    private Integer repeatEveryDays; // defaults to weekly
+
+    @Min(value = 1, message = "At least one occurrence is required.")
+    private Integer occurrences;
+
+    private BulkBookingMode mode; // defaults to ALL_OR_NOTHING
+}
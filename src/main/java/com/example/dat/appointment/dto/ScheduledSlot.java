@@ -0,0 +1,7 @@
+package com.example.dat.appointment.dto;
+
+import java.time.LocalDateTime;
+
+//lightweight projection of a scheduled appointment, used to warm the in-memory schedule index
+public record ScheduledSlot(Long appointmentId, Long doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -1,22 +1,64 @@
 package com.example.dat.appointment.repo;
 
+import com.example.dat.appointment.dto.AppointmentSummaryDTO;
+import com.example.dat.appointment.dto.ScheduledSlot;
 import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.enums.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
 
 
+    //fetch plan for cancel/complete/consultation: both parties and their users in one select
+    @EntityGraph(attributePaths = {"doctor.user", "patient.user"})
+    Optional<Appointment> findWithPartiesById(Long id);
 
-    //fetch appointment of the doctor
-    List<Appointment> findByDoctor_User_IdOrderByIdDesc(Long userId);
+    //whether the doctor has ever had an appointment with the patient, gates access to the patient's history
+    boolean existsByDoctorIdAndPatientId(Long doctorId, Long patientId);
 
-    //fetch appointment of the patient
-    List<Appointment> findByPatient_User_IdOrderByIdDesc(Long userId);
+    String SUMMARY_SELECT = "SELECT new com.example.dat.appointment.dto.AppointmentSummaryDTO(" +
+            "a.id, a.startTime, a.endTime, a.status, a.meetingLink, a.purposeOfConsultation, " +
+            "d.id, d.firstName, d.lastName, d.specialization, du.name, " +
+            "p.id, p.firstName, p.lastName, pu.name) " +
+            "FROM Appointment a " +
+            "JOIN a.doctor d JOIN d.user du " +
+            "JOIN a.patient p LEFT JOIN p.user pu ";
+
+    String SUMMARY_FILTERS = "AND (:cursor IS NULL OR a.id < :cursor) " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.startTime >= :from) " +
+            "AND (:to IS NULL OR a.startTime < :to) " +
+            "ORDER BY a.id DESC";
+
+    //keyset page of a doctor's appointments, projected to the list view columns in one statement
+    @Query(SUMMARY_SELECT + "WHERE du.id = :userId " + SUMMARY_FILTERS)
+    List<AppointmentSummaryDTO> findDoctorAppointmentPage(
+            @Param("userId") Long userId,
+            @Param("cursor") Long cursor,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable
+    );
+
+    //keyset page of a patient's appointments, projected to the list view columns in one statement
+    @Query(SUMMARY_SELECT + "WHERE pu.id = :userId " + SUMMARY_FILTERS)
+    List<AppointmentSummaryDTO> findPatientAppointmentPage(
+            @Param("userId") Long userId,
+            @Param("cursor") Long cursor,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable
+    );
 
     @Query("SELECT a FROM Appointment a " +
             "WHERE a.doctor.id = :doctorId " +
@@ -31,4 +73,27 @@ public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
             @Param("newEndTime") LocalDateTime newEndTime
     );
 
+    //one doctor's scheduled appointments overlapping [from, to), so a whole booking series is checked with one query
+    @Query("SELECT new com.example.dat.appointment.dto.ScheduledSlot(a.id, a.doctor.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId " +
+            "AND a.status = 'SCHEDULED' " +
+            "AND a.startTime < :to AND a.endTime > :from " +
+            "ORDER BY a.startTime")
+    List<ScheduledSlot> findScheduledSlotsOverlapping(
+            @Param("doctorId") Long doctorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    //slim projection of appointments still relevant for conflict checks, used to warm DoctorScheduleIndex
+    @Query("SELECT new com.example.dat.appointment.dto.ScheduledSlot(a.id, a.doctor.id, a.startTime, a.endTime) " +
+            "FROM Appointment a " +
+            "WHERE a.status = :status " +
+            "AND (a.endTime IS NULL OR a.endTime > :after)")
+    List<ScheduledSlot> findScheduledSlotsEndingAfter(
+            @Param("status") AppointmentStatus status,
+            @Param("after") LocalDateTime after
+    );
+
 }
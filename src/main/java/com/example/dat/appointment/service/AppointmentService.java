@@ -1,15 +1,23 @@
 package com.example.dat.appointment.service;
 
 import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.AppointmentSummaryDTO;
+import com.example.dat.appointment.dto.BulkAppointmentDTO;
+import com.example.dat.appointment.dto.BulkBookingResultDTO;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 public interface AppointmentService {
 
     Response<AppointmentDTO> bookAppointment(AppointmentDTO appointmentDTO);
 
-    Response<List<AppointmentDTO>> getMyAppointments();
+    Response<BulkBookingResultDTO> bookAppointments(BulkAppointmentDTO bulkAppointmentDTO);
+
+    Response<CursorPage<AppointmentSummaryDTO>> getMyAppointments(Long cursor, Integer size, AppointmentStatus status,
+                                                                  LocalDateTime from, LocalDateTime to);
 
     Response<AppointmentDTO> cancelAppointment(Long appointmentId);
 
@@ -2,31 +2,45 @@ package com.example.dat.appointment.service;
 
 
 import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.AppointmentSummaryDTO;
+import com.example.dat.appointment.dto.BulkAppointmentDTO;
+import com.example.dat.appointment.dto.BulkBookingResultDTO;
+import com.example.dat.appointment.dto.RejectedSlotDTO;
+import com.example.dat.appointment.dto.ScheduledSlot;
 import com.example.dat.appointment.entity.Appointment;
 import com.example.dat.appointment.repo.AppointmentRepo;
 import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.doctor.repo.DoctorRepo;
 import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.BulkBookingMode;
 import com.example.dat.exceptions.BadRequestException;
+import com.example.dat.exceptions.ConflictException;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.notification.dto.NotificationDTO;
 import com.example.dat.notification.service.NotificationService;
 import com.example.dat.patient.entity.Patient;
-import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.service.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,23 +48,33 @@ import java.util.UUID;
 public class AppointmentServiceImpl implements AppointmentService {
 
     private final AppointmentRepo appointmentRepo;
-    private final PatientRepo patientRepo;
     private final DoctorRepo doctorRepo;
-    private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final CurrentUserResolver currentUserResolver;
     private final NotificationService notificationService;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final DoctorBookingLocks doctorBookingLocks;
+    private final TransactionTemplate transactionTemplate;
 
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMM dd, yyyy 'at' hh:mm a");
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String DOCTOR_UNAVAILABLE = "Doctor is not available at the requested time. Please check their schedule.";
+
+    // slots are 60 minutes and the doctor keeps a 60-minute break before each one
+    private static final int SLOT_MINUTES = 60;
+
+    @Value("${appointments.bulk.max-slots:52}")
+    private int maxBulkSlots;
+
 
     @Override
     public Response<AppointmentDTO> bookAppointment(AppointmentDTO appointmentDTO) {
 
-        User currentUser = userService.getCurrentUser();
-
-        // 1. Get the patient initiating the booking
-        Patient patient = patientRepo.findByUser(currentUser)
+        // 1. Get the patient initiating the booking (loaded together with its user)
+        Patient patient = currentUserResolver.findCurrentPatient()
                 .orElseThrow(() -> new NotFoundException("Patient profile required for booking."));
 
         // 2. Get the target doctor
@@ -72,33 +96,17 @@ public class AppointmentServiceImpl implements AppointmentService {
         LocalDateTime checkStart = startTime.minusMinutes(60);
 
 
-        // We only need to check for existing appointments whose END TIME overlaps with
-        // the proposed start time, OR whose START TIME overlaps with the proposed end time.
-
-        List<Appointment> conflicts = appointmentRepo.findConflictingAppointments(
-                doctor.getId(),
-                checkStart, // Check for conflicts from 1 hour before the proposed start
-                endTime
-        );
-
-        if (!conflicts.isEmpty()) {
-            throw new BadRequestException("Doctor is not available at the requested time. Please check their schedule.");
+        // Cheap in-memory check first so most rejected attempts never reach the locking path
+        if (isSlotTaken(doctor.getId(), checkStart, endTime)) {
+            throw new ConflictException(DOCTOR_UNAVAILABLE);
         }
 
 
-        // 4a. Generate a unique, random string for the room name.
-        //    (Your existing code is good for this)
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String uniqueRoomName = "dat-" + uuid.substring(0, 10);
-
-
-        // 4b. Use the public Jitsi Meet domain with your unique room name
-        String meetingLink = "https://meet.jit.si/" + uniqueRoomName;
-
-        log.info("Generated Jitsi meeting link: {}", meetingLink);
+        // 4. Generate a unique Jitsi meeting link for the session
+        String meetingLink = generateMeetingLink();
 
 
-        // 5. Build and Save Appointment
+        // 5. Build the Appointment
         Appointment appointment = Appointment.builder()
                 .startTime(appointmentDTO.getStartTime())
                 .endTime(appointmentDTO.getStartTime().plusMinutes(60)) // Assuming 60-min slot
@@ -110,9 +118,21 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .patient(patient)
                 .build();
 
-        Appointment savedAppointment = appointmentRepo.save(appointment);
+        // 6. Check-then-insert under the doctor's lock so concurrent bookings cannot both pass the check.
+        //    The index is updated before the lock is released, once the insert is committed.
+        Appointment savedAppointment = doctorBookingLocks.withDoctorLock(doctor.getId(), () -> {
+            Appointment committed = transactionTemplate.execute(status -> {
+                Appointment saved = insertIfSlotFree(appointment, checkStart, endTime);
+                // queued in the booking transaction, so a rolled back booking sends nothing
+                sendAppointmentConfirmation(saved);
+                return saved;
+            });
 
-        sendAppointmentConfirmation(savedAppointment);
+            doctorScheduleIndex.add(doctor.getId(), committed.getId(), committed.getStartTime(), committed.getEndTime());
+            return committed;
+        });
+
+        log.info("Appointment {} booked with doctor {}", savedAppointment.getId(), doctor.getId());
 
         return Response.<AppointmentDTO>builder()
                 .statusCode(200)
@@ -122,46 +142,272 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     }
 
+    /**
+     * Rejections of intervals this instance booked or already confirmed come straight from the index.
+     * Only a clash with intervals loaded by a rebuild, which another instance may have cancelled since,
+     * is confirmed against the database, once; the index then answers for them from memory.
+     */
+    private boolean isSlotTaken(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        return switch (doctorScheduleIndex.check(doctorId, from, to)) {
+            case FREE -> false;
+            case BUSY -> true;
+            case UNCONFIRMED -> {
+                List<ScheduledSlot> actual = appointmentRepo.findScheduledSlotsOverlapping(doctorId, from, to);
+                doctorScheduleIndex.reconcile(doctorId, from, to, actual);
+                yield !actual.isEmpty();
+            }
+        };
+    }
+
+    /**
+     * Runs inside the booking transaction. The doctor row lock serializes bookings for the same doctor
+     * across application instances, so the conflict query below is the final, race-free guard.
+     */
+    private Appointment insertIfSlotFree(Appointment appointment, LocalDateTime checkStart, LocalDateTime endTime) {
+
+        Long doctorId = appointment.getDoctor().getId();
+
+        doctorRepo.findByIdForUpdate(doctorId)
+                .orElseThrow(() -> new NotFoundException("Doctor not found."));
+
+        // We only need to check for existing appointments whose END TIME overlaps with
+        // the proposed start time, OR whose START TIME overlaps with the proposed end time.
+
+        List<Appointment> conflicts = appointmentRepo.findConflictingAppointments(
+                doctorId,
+                checkStart, // Check for conflicts from 1 hour before the proposed start
+                endTime
+        );
+
+        if (!conflicts.isEmpty()) {
+            throw new ConflictException(DOCTOR_UNAVAILABLE);
+        }
+
+        return appointmentRepo.save(appointment);
+    }
 
     @Override
-    public Response<List<AppointmentDTO>> getMyAppointments() {
+    public Response<BulkBookingResultDTO> bookAppointments(BulkAppointmentDTO bulkDTO) {
+
+        Patient patient = currentUserResolver.findCurrentPatient()
+                .orElseThrow(() -> new NotFoundException("Patient profile required for booking."));
+
+        // Doctor and its user are needed for the summary email, load them together
+        Doctor doctor = doctorRepo.findWithUserById(bulkDTO.getDoctorId())
+                .orElseThrow(() -> new NotFoundException("Doctor not found."));
+
+        BulkBookingMode mode = bulkDTO.getMode() != null ? bulkDTO.getMode() : BulkBookingMode.ALL_OR_NOTHING;
+        TreeSet<LocalDateTime> startTimes = resolveStartTimes(bulkDTO);
+
+        // 1. Checks that need no database: advance notice, overlaps inside the request, the in-memory schedule
+        Map<LocalDateTime, String> rejected = new TreeMap<>();
+        List<LocalDateTime> candidates = new ArrayList<>();
+        LocalDateTime earliest = LocalDateTime.now().plusHours(1);
+
+        for (LocalDateTime startTime : startTimes) {
+            if (startTime.isBefore(earliest)) {
+                rejected.put(startTime, "Appointments must be booked at least 1 hour in advance.");
+            } else if (!candidates.isEmpty() && clashes(candidates.get(candidates.size() - 1), startTime)) {
+                rejected.put(startTime, "Overlaps another session in this request.");
+            } else if (isSlotTaken(doctor.getId(), startTime.minusMinutes(SLOT_MINUTES), startTime.plusMinutes(SLOT_MINUTES))) {
+                rejected.put(startTime, DOCTOR_UNAVAILABLE);
+            } else {
+                candidates.add(startTime);
+            }
+        }
 
-        User user = userService.getCurrentUser();
+        if (mode == BulkBookingMode.ALL_OR_NOTHING && !rejected.isEmpty()) {
+            throw new ConflictException(describeRejections(rejected));
+        }
+
+        // 2. Check the whole series against the doctor's schedule and insert it in one transaction under the doctor's lock
+        List<Appointment> booked = candidates.isEmpty() ? List.of() : doctorBookingLocks.withDoctorLock(doctor.getId(), () -> {
+            List<Appointment> committed = transactionTemplate.execute(status -> {
+                List<Appointment> saved = insertFreeSlots(doctor, patient, bulkDTO, candidates, mode, rejected);
+                // One summary email per party for the whole series, queued with the inserts
+                if (!saved.isEmpty()) {
+                    sendSeriesConfirmation(saved, doctor, patient);
+                }
+                return saved;
+            });
+
+            committed.forEach(a -> doctorScheduleIndex.add(doctor.getId(), a.getId(), a.getStartTime(), a.getEndTime()));
+            return committed;
+        });
+
+        BulkBookingResultDTO result = BulkBookingResultDTO.builder()
+                .booked(booked.stream().map(this::toBookedDTO).toList())
+                .rejected(rejected.entrySet().stream()
+                        .map(e -> RejectedSlotDTO.builder().startTime(e.getKey()).reason(e.getValue()).build())
+                        .toList())
+                .build();
+
+        return Response.<BulkBookingResultDTO>builder()
+                .statusCode(200)
+                .message("Booked " + booked.size() + " of " + startTimes.size() + " appointments.")
+                .data(result)
+                .build();
+    }
+
+    /**
+     * Runs inside the bulk booking transaction. One range query loads the doctor's appointments around the
+     * whole series and every candidate is checked against it in memory, then the free ones are saved as one batch.
+     */
+    private List<Appointment> insertFreeSlots(Doctor doctor, Patient patient, BulkAppointmentDTO bulkDTO,
+                                              List<LocalDateTime> candidates, BulkBookingMode mode,
+                                              Map<LocalDateTime, String> rejected) {
+
+        doctorRepo.findByIdForUpdate(doctor.getId())
+                .orElseThrow(() -> new NotFoundException("Doctor not found."));
+
+        List<ScheduledSlot> existing = appointmentRepo.findScheduledSlotsOverlapping(
+                doctor.getId(),
+                candidates.get(0).minusMinutes(SLOT_MINUTES),
+                candidates.get(candidates.size() - 1).plusMinutes(SLOT_MINUTES)
+        );
+
+        List<Appointment> toSave = new ArrayList<>();
+        Map<LocalDateTime, String> conflicts = new TreeMap<>();
+
+        for (LocalDateTime startTime : candidates) {
+            LocalDateTime checkStart = startTime.minusMinutes(SLOT_MINUTES);
+            LocalDateTime endTime = startTime.plusMinutes(SLOT_MINUTES);
+
+            boolean taken = existing.stream()
+                    .anyMatch(slot -> slot.startTime().isBefore(endTime) && slot.endTime().isAfter(checkStart));
+
+            if (taken) {
+                conflicts.put(startTime, DOCTOR_UNAVAILABLE);
+                continue;
+            }
+
+            toSave.add(Appointment.builder()
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .meetingLink(generateMeetingLink())
+                    .initialSymptoms(bulkDTO.getInitialSymptoms())
+                    .purposeOfConsultation(bulkDTO.getPurposeOfConsultation())
+                    .status(AppointmentStatus.SCHEDULED)
+                    .doctor(doctor)
+                    .patient(patient)
+                    .build());
+        }
+
+        if (mode == BulkBookingMode.ALL_OR_NOTHING && !conflicts.isEmpty()) {
+            throw new ConflictException(describeRejections(conflicts));
+        }
+        rejected.putAll(conflicts);
+
+        return appointmentRepo.saveAll(toSave);
+    }
+
+    //explicit start times win over the recurrence; returned sorted and de-duplicated
+    private TreeSet<LocalDateTime> resolveStartTimes(BulkAppointmentDTO bulkDTO) {
+
+        TreeSet<LocalDateTime> startTimes = new TreeSet<>();
+
+        if (bulkDTO.getStartTimes() != null && !bulkDTO.getStartTimes().isEmpty()) {
+            if (bulkDTO.getStartTimes().size() > maxBulkSlots) {
+                throw new BadRequestException("At most " + maxBulkSlots + " appointments can be booked at once.");
+            }
+            bulkDTO.getStartTimes().forEach(startTime -> {
+                if (startTime == null) {
+                    throw new BadRequestException("Start times must not be empty.");
+                }
+                startTimes.add(startTime);
+            });
+            return startTimes;
+        }
+
+        if (bulkDTO.getFirstStartTime() == null || bulkDTO.getOccurrences() == null) {
+            throw new BadRequestException("Provide either startTimes or firstStartTime with occurrences.");
+        }
+        if (bulkDTO.getOccurrences() > maxBulkSlots) {
+            throw new BadRequestException("At most " + maxBulkSlots + " appointments can be booked at once.");
+        }
+
+        int repeatEveryDays = bulkDTO.getRepeatEveryDays() != null ? bulkDTO.getRepeatEveryDays() : 7;
+        for (int i = 0; i < bulkDTO.getOccurrences(); i++) {
+            startTimes.add(bulkDTO.getFirstStartTime().plusDays((long) i * repeatEveryDays));
+        }
+        return startTimes;
+    }
+
+    //two slots clash when one falls inside the other's slot or its preceding one-hour break
+    private boolean clashes(LocalDateTime earlier, LocalDateTime later) {
+        return later.isBefore(earlier.plusMinutes(2L * SLOT_MINUTES));
+    }
+
+    private String describeRejections(Map<LocalDateTime, String> rejected) {
+        return rejected.entrySet().stream()
+                .map(e -> e.getKey().format(FORMATTER) + ": " + e.getValue())
+                .collect(Collectors.joining(" ", rejected.size() + " requested appointment(s) cannot be booked. ", ""));
+    }
+
+    private AppointmentDTO toBookedDTO(Appointment appointment) {
+        return AppointmentDTO.builder()
+                .id(appointment.getId())
+                .doctorId(appointment.getDoctor().getId())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .meetingLink(appointment.getMeetingLink())
+                .status(appointment.getStatus())
+                .build();
+    }
+
+    private String generateMeetingLink() {
+
+        // Generate a unique, random string for the room name
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        String uniqueRoomName = "dat-" + uuid.substring(0, 10);
+
+        // Use the public Jitsi Meet domain with the unique room name
+        String meetingLink = "https://meet.jit.si/" + uniqueRoomName;
+
+        log.info("Generated Jitsi meeting link: {}", meetingLink);
+        return meetingLink;
+    }
+
+
+    @Override
+    public Response<CursorPage<AppointmentSummaryDTO>> getMyAppointments(Long cursor, Integer size, AppointmentStatus status,
+                                                                         LocalDateTime from, LocalDateTime to) {
+
+        User user = currentUserResolver.getCurrentUser();
 
         Long userId = user.getId();
 
-        List<Appointment> appointments;
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<AppointmentSummaryDTO> rows;
 
         // Check for "DOCTOR" role
         boolean isDoctor = user.getRoles().stream()
                 .anyMatch(r -> r.getName().equals("DOCTOR"));
 
+        // One projection query per page, keyed on id so deep pages cost the same as the first
         if (isDoctor) {
-            // 1. Check for Doctor profile existence (required to throw the correct exception)
-            doctorRepo.findByUser(user)
-                    .orElseThrow(() -> new NotFoundException("Doctor profile not found."));
-
-            // 2. Efficiently fetch appointments of the Doctor
-            appointments = appointmentRepo.findByDoctor_User_IdOrderByIdDesc(userId);
-
+            rows = appointmentRepo.findDoctorAppointmentPage(userId, cursor, status, from, to, limit);
         } else {
+            rows = appointmentRepo.findPatientAppointmentPage(userId, cursor, status, from, to, limit);
+        }
 
-            // 1. Check for Patient profile existence
-            patientRepo.findByUser(user)
-                    .orElseThrow(() -> new NotFoundException("Patient profile not found."));
+        boolean hasMore = rows.size() > pageSize;
+        List<AppointmentSummaryDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
 
-            // 2. Efficiently fetch appointments using the User ID to navigate Patient relationship
-            appointments = appointmentRepo.findByPatient_User_IdOrderByIdDesc(userId);
-        }
-        // Convert the list of entities to DTOs in a single step
-        List<AppointmentDTO> appointmentDTOList = appointments.stream()
-                .map(appointment -> modelMapper.map(appointment, AppointmentDTO.class))
-                .toList();
+        CursorPage<AppointmentSummaryDTO> page = CursorPage.<AppointmentSummaryDTO>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
 
-        return Response.<List<AppointmentDTO>>builder()
+        return Response.<CursorPage<AppointmentSummaryDTO>>builder()
                 .statusCode(200)
                 .message("Appointments retrieved successfully.")
-                .data(appointmentDTOList)
+                .data(page)
                 .build();
 
     }
@@ -169,9 +415,9 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     public Response<AppointmentDTO> cancelAppointment(Long appointmentId) {
 
-        User user = userService.getCurrentUser();
+        User user = currentUserResolver.getCurrentUser();
 
-        Appointment appointment = appointmentRepo.findById(appointmentId)
+        Appointment appointment = appointmentRepo.findWithPartiesById(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Appointment not found."));
 
 
@@ -183,12 +429,15 @@ public class AppointmentServiceImpl implements AppointmentService {
             throw new BadRequestException("You do not have permission to cancel this appointment.");
         }
 
-        // Update status
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-        Appointment savedAppointment = appointmentRepo.save(appointment);
+        // Update status and queue the notifications in the same transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            appointment.setStatus(AppointmentStatus.CANCELLED);
+            Appointment savedAppointment = appointmentRepo.save(appointment);
 
-        // NOTE: Notification should be sent to the other party (patient/doctor)
-        sendAppointmentCancellation(savedAppointment, user);
+            // NOTE: Notification should be sent to the other party (patient/doctor)
+            sendAppointmentCancellation(savedAppointment, user);
+        });
+        doctorScheduleIndex.remove(appointment.getDoctor().getId(), appointment.getId());
 
         return Response.<AppointmentDTO>builder()
                 .statusCode(200)
@@ -201,10 +450,10 @@ public class AppointmentServiceImpl implements AppointmentService {
     public Response<?> completeAppointment(Long appointmentId) {
 
         // Get the current user (must be the Doctor)
-        User currentUser = userService.getCurrentUser();
+        User currentUser = currentUserResolver.getCurrentUser();
 
         // 1. Fetch the appointment
-        Appointment appointment = appointmentRepo.findById(appointmentId)
+        Appointment appointment = appointmentRepo.findWithPartiesById(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Appointment not found with ID: " + appointmentId));
 
         // Security Check 1: Ensure the current user is the Doctor assigned to this appointment
@@ -216,9 +465,8 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setStatus(AppointmentStatus.COMPLETED);
         appointment.setEndTime(LocalDateTime.now());
 
-        Appointment updatedAppointment = appointmentRepo.save(appointment);
-
-        modelMapper.map(updatedAppointment, AppointmentDTO.class);
+        appointmentRepo.save(appointment);
+        doctorScheduleIndex.remove(appointment.getDoctor().getId(), appointment.getId());
 
         return Response.builder()
                 .statusCode(200)
@@ -261,8 +509,8 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .templateVariables(doctorVars)
                 .build();
 
-        notificationService.sendEmail(doctorNotification, doctorUser);
-        log.info("Dispatched cancellation email to Doctor: {}", doctorUser.getEmail());
+        notificationService.queueEmail(doctorNotification, doctorUser);
+        log.info("Queued cancellation email to Doctor: {}", doctorUser.getEmail());
 
 
         // --- 2. Dispatch Email to Patient ---
@@ -276,9 +524,56 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .templateVariables(patientVars)
                 .build();
 
-        notificationService.sendEmail(patientNotification, patientUser);
-        log.info("Dispatched cancellation email to Patient: {}", patientUser.getEmail());
+        notificationService.queueEmail(patientNotification, patientUser);
+        log.info("Queued cancellation email to Patient: {}", patientUser.getEmail());
+
+    }
+
+
+    private void sendSeriesConfirmation(List<Appointment> appointments, Doctor doctor, Patient patient) {
+
+        User patientUser = patient.getUser();
+        User doctorUser = doctor.getUser();
+        Appointment first = appointments.get(0);
+
+        List<Map<String, Object>> sessions = appointments.stream()
+                .map(a -> Map.<String, Object>of(
+                        "appointmentTime", a.getStartTime().format(FORMATTER),
+                        "meetingLink", a.getMeetingLink()))
+                .toList();
+
+        Map<String, Object> baseVars = new HashMap<>();
+        baseVars.put("patientName", patientUser.getName());
+        baseVars.put("doctorName", doctorUser.getName());
+        baseVars.put("sessions", sessions);
+        baseVars.put("sessionCount", sessions.size());
+        baseVars.put("purposeOfConsultation", first.getPurposeOfConsultation());
+
+        // --- 1. Patient summary ---
+        NotificationDTO patientNotification = NotificationDTO.builder()
+                .recipient(patientUser.getEmail())
+                .subject("DAT Health: " + sessions.size() + " Appointments Confirmed")
+                .templateName("patient-appointment-series")
+                .templateVariables(baseVars)
+                .build();
+
+        notificationService.queueEmail(patientNotification, patientUser);
+        log.info("Queued series confirmation email for patient: {}", patientUser.getEmail());
+
+        // --- 2. Doctor summary ---
+        Map<String, Object> doctorVars = new HashMap<>(baseVars);
+        doctorVars.put("patientFullName", patientUser.getName());
+        doctorVars.put("initialSymptoms", first.getInitialSymptoms());
+
+        NotificationDTO doctorNotification = NotificationDTO.builder()
+                .recipient(doctorUser.getEmail())
+                .subject("DAT Health: " + sessions.size() + " New Appointments Booked")
+                .templateName("doctor-appointment-series")
+                .templateVariables(doctorVars)
+                .build();
 
+        notificationService.queueEmail(doctorNotification, doctorUser);
+        log.info("Queued series booking email for doctor: {}", doctorUser.getEmail());
     }
 
 
@@ -306,8 +601,8 @@ public class AppointmentServiceImpl implements AppointmentService {
 
 
         // Dispatch patient email using the low-level service
-        notificationService.sendEmail(patientNotification, patientUser);
-        log.info("Dispatched confirmation email for patient: {}", patientUser.getEmail());
+        notificationService.queueEmail(patientNotification, patientUser);
+        log.info("Queued confirmation email for patient: {}", patientUser.getEmail());
 
 
         // --- 2. Prepare Doctor Notification ---
@@ -331,8 +626,8 @@ public class AppointmentServiceImpl implements AppointmentService {
 
 
         // Dispatch doctor email using the low-level service
-        notificationService.sendEmail(doctorNotification, doctorUser);
-        log.info("Dispatched new appointment email for doctor: {}", doctorUser.getEmail());
+        notificationService.queueEmail(doctorNotification, doctorUser);
+        log.info("Queued new appointment email for doctor: {}", doctorUser.getEmail());
     }
 }
 
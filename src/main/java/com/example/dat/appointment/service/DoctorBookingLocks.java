@@ -0,0 +1,49 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped per-doctor locks. Bookings for the same doctor run one at a time inside this JVM while
+ * bookings for different doctors proceed in parallel; the doctor row lock taken in the booking
+ * transaction is what guards across instances.
+ */
+@Component
+public class DoctorBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public DoctorBookingLocks(@Value("${appointments.booking.lock-stripes:64}") int stripeCount,
+                              @Value("${appointments.booking.lock-timeout-ms:5000}") long timeoutMillis) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public <T> T withDoctorLock(Long doctorId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(doctorId.hashCode(), stripes.length)];
+
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Booking service is busy, please try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking was interrupted");
+        }
+
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
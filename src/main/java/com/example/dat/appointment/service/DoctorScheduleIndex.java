@@ -0,0 +1,345 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.enums.AppointmentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of each doctor's SCHEDULED appointments, sorted by start time, so most clashing
+ * bookings are turned away before the locking path. It is warmed at startup, kept in sync on this
+ * instance's book, cancel and complete, and rebuilt from the database periodically to pick up changes made
+ * on other instances. Intervals this instance booked, or already confirmed, reject a clashing booking
+ * without touching the database. Intervals loaded by a rebuild may have been cancelled elsewhere since, so
+ * the first clash with one is confirmed against the database once. Staleness beyond that is left to the
+ * periodic rebuild, and the DB conflict query under the doctor lock stays the final guard.
+ * Alongside the intervals each doctor keeps a per-day bitset of occupied 15-minute cells, which is
+ * what the availability search reads.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DoctorScheduleIndex {
+
+    // appointments are 60 minutes unless an end time says otherwise
+    private static final Duration DEFAULT_DURATION = Duration.ofMinutes(60);
+
+    private final AppointmentRepo appointmentRepo;
+
+    private final Map<Long, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private final LongAdder busyAnswers = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+    private final LongAdder staleIntervals = new LongAdder();
+
+    @Value("${appointments.availability.step:30m}")
+    private Duration slotStep;
+
+    @Value("${appointments.availability.day-start:00:00}")
+    private String dayStart;
+
+    @Value("${appointments.availability.day-end:23:59}")
+    private String dayEnd;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcileAll();
+        ready = true;
+    }
+
+    /**
+     * Rebuilds every doctor's schedule from the database. The index only sees this instance's bookings and
+     * cancellations, so this periodically drops intervals cancelled or completed on other instances and
+     * picks up their bookings.
+     */
+    @Scheduled(initialDelayString = "${appointments.schedule-index.reconcile-interval:5m}",
+            fixedDelayString = "${appointments.schedule-index.reconcile-interval:5m}")
+    public void reconcileAll() {
+        List<ScheduledSlot> slots = appointmentRepo.findScheduledSlotsEndingAfter(
+                AppointmentStatus.SCHEDULED, LocalDateTime.now().minus(DEFAULT_DURATION));
+
+        Map<Long, DoctorSchedule> fresh = new HashMap<>();
+        slots.forEach(slot -> fresh.computeIfAbsent(slot.doctorId(), id -> new DoctorSchedule())
+                .add(interval(slot.appointmentId(), slot.startTime(), slot.endTime(), false)));
+
+        schedules.keySet().retainAll(fresh.keySet());
+        schedules.putAll(fresh);
+
+        log.info("Doctor schedule index loaded with {} scheduled appointments for {} doctors "
+                        + "({} busy answers, {} database checks, {} stale intervals so far)",
+                slots.size(), schedules.size(), getBusyAnswers(), getDatabaseChecks(), getStaleIntervals());
+    }
+
+    /**
+     * Replaces what the index holds for one doctor in [from, to) with the rows just read from the database
+     * after an UNCONFIRMED answer. They are confirmed from now on, so further clashes with them are answered
+     * from memory until the next rebuild.
+     */
+    public void reconcile(Long doctorId, LocalDateTime from, LocalDateTime to, List<ScheduledSlot> actual) {
+        databaseChecks.increment();
+        DoctorSchedule schedule = schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule());
+        List<Long> removed = schedule.removeOverlapping(from, to);
+        actual.forEach(slot -> schedule.add(interval(slot.appointmentId(), slot.startTime(), slot.endTime(), true)));
+        removed.stream()
+                .filter(id -> actual.stream().noneMatch(slot -> slot.appointmentId().equals(id)))
+                .forEach(id -> staleIntervals.increment());
+    }
+
+    /**
+     * FREE when the doctor has no scheduled appointment overlapping [from, to), BUSY when one of the
+     * overlapping appointments was booked or confirmed by this instance, UNCONFIRMED when they all come
+     * from a rebuild and may have been cancelled on another instance since.
+     * Before the index is loaded it answers FREE and leaves the decision to the database.
+     */
+    public SlotState check(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        if (!ready) {
+            return SlotState.FREE;
+        }
+        DoctorSchedule schedule = schedules.get(doctorId);
+        SlotState state = schedule == null ? SlotState.FREE : schedule.check(from, to);
+        if (state == SlotState.BUSY) {
+            busyAnswers.increment();
+        }
+        return state;
+    }
+
+    //clashes rejected from memory alone
+    public long getBusyAnswers() {
+        return busyAnswers.sum();
+    }
+
+    //UNCONFIRMED answers that were checked against the database
+    public long getDatabaseChecks() {
+        return databaseChecks.sum();
+    }
+
+    //rebuilt intervals the database no longer had, i.e. bookings that would have been wrongly rejected
+    public long getStaleIntervals() {
+        return staleIntervals.sum();
+    }
+
+    /**
+     * Start times in [from, to] (whole days) at which the doctor could take a 60-minute appointment,
+     * honoring the one-hour buffer and the one-hour advance booking rule enforced by bookAppointment.
+     */
+    public List<LocalDateTime> findFreeSlots(Long doctorId, LocalDate from, LocalDate to) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        LocalDateTime earliest = LocalDateTime.now().plusHours(1);
+        LocalTime firstStart = LocalTime.parse(dayStart);
+        LocalTime closing = LocalTime.parse(dayEnd);
+
+        List<LocalDateTime> freeSlots = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDateTime lastStart = day.atTime(closing).minus(DEFAULT_DURATION);
+
+            for (LocalDateTime start = day.atTime(firstStart); !start.isAfter(lastStart); start = start.plus(slotStep)) {
+                if (start.isBefore(earliest)) {
+                    continue;
+                }
+                if (schedule == null || !schedule.isOccupied(start.minus(DEFAULT_DURATION), start.plus(DEFAULT_DURATION))) {
+                    freeSlots.add(start);
+                }
+            }
+        }
+        return freeSlots;
+    }
+
+    public void add(Long doctorId, Long appointmentId, LocalDateTime startTime, LocalDateTime endTime) {
+        schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule())
+                .add(interval(appointmentId, startTime, endTime, true));
+    }
+
+    private static Interval interval(Long appointmentId, LocalDateTime startTime, LocalDateTime endTime, boolean confirmed) {
+        return new Interval(appointmentId, startTime, endTime != null ? endTime : startTime.plus(DEFAULT_DURATION), confirmed);
+    }
+
+    public void remove(Long doctorId, Long appointmentId) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule != null) {
+            schedule.remove(appointmentId);
+        }
+    }
+
+    //drop appointments that are already over, they can no longer conflict with a booking
+    @Scheduled(fixedDelayString = "${appointments.schedule-index.prune-interval:1h}")
+    public void prunePast() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(DEFAULT_DURATION);
+        schedules.values().forEach(schedule -> schedule.removeEndingBefore(cutoff));
+    }
+
+
+    public enum SlotState {
+        FREE, BUSY, UNCONFIRMED
+    }
+
+    //confirmed: booked by this instance or re-read from the database since the last rebuild
+    private record Interval(Long appointmentId, LocalDateTime start, LocalDateTime end, boolean confirmed) {
+    }
+
+    /**
+     * One doctor's intervals ordered by start time. Lookups only scan intervals that start within the
+     * longest known duration before the queried window, which is O(log n) for fixed-length slots.
+     * Occupied time is also kept as one 96-bit set per day (15-minute cells), rounded outwards.
+     */
+    private static class DoctorSchedule {
+
+        private static final int CELL_MINUTES = 15;
+        private static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+
+        private static final Comparator<Interval> BY_START =
+                Comparator.comparing(Interval::start).thenComparing(Interval::appointmentId);
+
+        private final NavigableSet<Interval> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, Interval> byId = new HashMap<>();
+        private final Map<LocalDate, BitSet> occupiedByDay = new HashMap<>();
+        private Duration longest = DEFAULT_DURATION;
+
+        synchronized SlotState check(LocalDateTime from, LocalDateTime to) {
+            SlotState state = SlotState.FREE;
+            for (Interval interval : overlapping(from, to)) {
+                if (interval.confirmed()) {
+                    return SlotState.BUSY;
+                }
+                state = SlotState.UNCONFIRMED;
+            }
+            return state;
+        }
+
+        private List<Interval> overlapping(LocalDateTime from, LocalDateTime to) {
+            Interval lower = new Interval(Long.MIN_VALUE, from.minus(longest), null, false);
+            Interval upper = new Interval(Long.MIN_VALUE, to, null, false);
+
+            List<Interval> overlapping = new ArrayList<>();
+            for (Interval interval : byStart.subSet(lower, false, upper, false)) {
+                if (interval.end().isAfter(from)) {
+                    overlapping.add(interval);
+                }
+            }
+            return overlapping;
+        }
+
+        synchronized void add(Interval interval) {
+            Interval previous = byId.put(interval.appointmentId(), interval);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+            byStart.add(interval);
+
+            if (previous != null) {
+                rebuildDays(previous);
+            }
+            markCells(interval);
+
+            Duration duration = Duration.between(interval.start(), interval.end());
+            if (duration.compareTo(longest) > 0) {
+                longest = duration;
+            }
+        }
+
+        synchronized List<Long> removeOverlapping(LocalDateTime from, LocalDateTime to) {
+            List<Long> removed = overlapping(from, to).stream().map(Interval::appointmentId).toList();
+            removed.forEach(this::remove);
+            return removed;
+        }
+
+        synchronized void remove(Long appointmentId) {
+            Interval interval = byId.remove(appointmentId);
+            if (interval != null) {
+                byStart.remove(interval);
+                rebuildDays(interval);
+            }
+        }
+
+        //true when any 15-minute cell touching [from, to) is occupied
+        synchronized boolean isOccupied(LocalDateTime from, LocalDateTime to) {
+            for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+                BitSet cells = occupiedByDay.get(day);
+                if (cells == null) {
+                    continue;
+                }
+                int firstCell = cellFloor(day, from);
+                int endCell = cellCeil(day, to);
+                int next = cells.nextSetBit(firstCell);
+                if (next >= 0 && next < endCell) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void removeEndingBefore(LocalDateTime cutoff) {
+            byStart.removeIf(interval -> {
+                if (interval.end().isBefore(cutoff)) {
+                    byId.remove(interval.appointmentId());
+                    return true;
+                }
+                return false;
+            });
+            occupiedByDay.keySet().removeIf(day -> day.isBefore(cutoff.toLocalDate()));
+        }
+
+        private void markCells(Interval interval) {
+            if (!interval.end().isAfter(interval.start())) {
+                return;
+            }
+            for (LocalDate day = interval.start().toLocalDate(); day.atStartOfDay().isBefore(interval.end()); day = day.plusDays(1)) {
+                occupiedByDay.computeIfAbsent(day, d -> new BitSet(CELLS_PER_DAY))
+                        .set(cellFloor(day, interval.start()), cellCeil(day, interval.end()));
+            }
+        }
+
+        //cells of a removed interval may be shared with a neighbour, so its days are rebuilt from the intervals
+        private void rebuildDays(Interval removed) {
+            for (LocalDate day = removed.start().toLocalDate(); day.atStartOfDay().isBefore(removed.end()); day = day.plusDays(1)) {
+                occupiedByDay.remove(day);
+
+                LocalDateTime dayStart = day.atStartOfDay();
+                LocalDateTime nextDay = dayStart.plusDays(1);
+                Interval lower = new Interval(Long.MIN_VALUE, dayStart.minus(longest), null, false);
+                Interval upper = new Interval(Long.MIN_VALUE, nextDay, null, false);
+
+                for (Interval interval : byStart.subSet(lower, false, upper, false)) {
+                    if (interval.end().isAfter(dayStart)) {
+                        occupiedByDay.computeIfAbsent(day, d -> new BitSet(CELLS_PER_DAY))
+                                .set(cellFloor(day, interval.start()), cellCeil(day, interval.end()));
+                    }
+                }
+            }
+        }
+
+        private static int cellFloor(LocalDate day, LocalDateTime time) {
+            long minutes = Duration.between(day.atStartOfDay(), time).toMinutes();
+            return (int) Math.max(0, Math.min(CELLS_PER_DAY, Math.floorDiv(minutes, CELL_MINUTES)));
+        }
+
+        private static int cellCeil(LocalDate day, LocalDateTime time) {
+            long seconds = Duration.between(day.atStartOfDay(), time).toSeconds();
+            long cellSeconds = CELL_MINUTES * 60L;
+            return (int) Math.max(0, Math.min(CELLS_PER_DAY, Math.floorDiv(seconds + cellSeconds - 1, cellSeconds)));
+        }
+    }
+}
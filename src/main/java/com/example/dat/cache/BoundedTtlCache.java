@@ -0,0 +1,104 @@
+package com.example.dat.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small size-bounded cache with per-entry expiry. Entries sit in insertion order in a LinkedHashMap
+ * behind one lock: once the map is over its bound the oldest entry is evicted, and an expired entry is
+ * dropped when it is next read. Entries that expire and are never read again age out through the size
+ * bound, so the cache never holds more than maxSize entries.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final Duration defaultTtl;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public BoundedTtlCache(int maxSize, Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //null when absent or expired
+    public V get(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - now > 0) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtl);
+    }
+
+    //a replaced entry moves to the young end; a non-positive ttl caches nothing
+    public void put(K key, V value, Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttl.toNanos());
+        synchronized (entries) {
+            entries.remove(key);
+            entries.put(key, entry);
+        }
+    }
+
+    public boolean remove(K key) {
+        synchronized (entries) {
+            return entries.remove(key) != null;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
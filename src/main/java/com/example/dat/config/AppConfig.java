@@ -2,16 +2,21 @@ package com.example.dat.config;
 
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
 
     @Bean
-    public SpringTemplateEngine templateEngine(){
+    public SpringTemplateEngine templateEngine(@Value("${notifications.templates.cache-ttl:0s}") Duration cacheTtl,
+                                               @Value("${notifications.templates.cache-max-size:50}") int cacheMaxSize){
         SpringTemplateEngine templateEngine = new SpringTemplateEngine();
 
         ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
@@ -19,7 +24,15 @@ public class AppConfig {
         templateResolver.setSuffix(".html");
         templateResolver.setCharacterEncoding("UTF-8");
 
+        // parsed templates are cached; a zero TTL keeps them until the cache is full
+        templateResolver.setCacheable(true);
+        templateResolver.setCacheTTLMs(cacheTtl.isZero() ? null : cacheTtl.toMillis());
+
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(cacheMaxSize);
+
         templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setCacheManager(cacheManager);
         return templateEngine;
     }
 
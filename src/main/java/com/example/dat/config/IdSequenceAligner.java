@@ -0,0 +1,48 @@
+package com.example.dat.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * MySQL has no sequences, so Hibernate backs the pooled generators with single-row tables
+ * (e.g. appointments_seq.next_val). Those tables start at 1, while the entity tables already hold
+ * IDENTITY-generated rows. Before anything is inserted we move every next_val past the current
+ * max(id) so pooled ids never collide with existing ones.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner {
+
+    // sequence table -> entity table it hands out ids for
+    private static final Map<String, String> SEQUENCE_TABLES = Map.of(
+            "appointments_seq", "appointments",
+            "notifications_seq", "notifications",
+            "consultations_seq", "consultations",
+            "password_reset_code_seq", "password_reset_code"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // depending on the EntityManagerFactory guarantees the schema (and sequence tables) exist first
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCE_TABLES.forEach((sequenceTable, entityTable) -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequenceTable +
+                            " SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM " + entityTable + ")" +
+                            " WHERE next_val <= (SELECT COALESCE(MAX(id), 0) FROM " + entityTable + ")");
+            if (updated > 0) {
+                log.info("Moved {} past the existing ids in {}", sequenceTable, entityTable);
+            }
+        });
+    }
+}
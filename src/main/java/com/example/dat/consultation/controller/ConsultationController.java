@@ -2,15 +2,15 @@ package com.example.dat.consultation.controller;
 
 
 import com.example.dat.consultation.dto.ConsultationDTO;
+import com.example.dat.consultation.dto.ConsultationSummaryDTO;
 import com.example.dat.consultation.service.ConsultationService;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/consultations")
@@ -31,10 +31,17 @@ public class ConsultationController {
         return ResponseEntity.ok(consultationService.getConsultationByAppointmentId(appointmentId));
     }
 
+    @GetMapping("/{consultationId}")
+    public ResponseEntity<Response<ConsultationDTO>> getConsultationById(@PathVariable Long consultationId) {
+        return ResponseEntity.ok(consultationService.getConsultationById(consultationId));
+    }
+
     @GetMapping("/history")
-    public ResponseEntity<Response<List<ConsultationDTO>>> getConsultationHistoryForPatient(
-            @RequestParam(required = false) Long patientId) {
-        return ResponseEntity.ok(consultationService.getConsultationHistoryForPatient(patientId));
+    public ResponseEntity<Response<CursorPage<ConsultationSummaryDTO>>> getConsultationHistoryForPatient(
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(consultationService.getConsultationHistoryForPatient(patientId, cursor, size));
     }
 
 }
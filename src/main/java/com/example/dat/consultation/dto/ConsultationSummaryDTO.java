@@ -0,0 +1,32 @@
+package com.example.dat.consultation.dto;
+
+
+import com.example.dat.enums.Specialization;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a patient's consultation history, filled directly by a JPQL constructor expression.
+ * Only a preview of the assessment is read; the full notes come from the consultation detail call.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConsultationSummaryDTO {
+
+    private Long id;
+    private Long appointmentId;
+    private LocalDateTime consultationDate;
+
+    private Long doctorId;
+    private String doctorFirstName;
+    private String doctorLastName;
+    private Specialization doctorSpecialization;
+
+    private String assessmentPreview;
+}
@@ -5,13 +5,19 @@ import com.example.dat.appointment.entity.Appointment;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
+//no @Data: its toString/equals/hashCode would read the lazy note bodies and the appointment,
+//so equality stays the default identity and toString only shows the eager columns
 @Entity
-@Data
+@Getter
+@Setter
+@ToString(of = {"id", "consultationDate"})
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -20,24 +26,31 @@ public class Consultation {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consultation_seq")
+    @SequenceGenerator(name = "consultation_seq", sequenceName = "consultations_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime consultationDate;
 
+    //note bodies are lazy (needs the build-time bytecode enhancement in pom.xml), so loading a
+    //Consultation entity does not drag its LOBs along; they load together on first access
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private String subjectiveNotes;
 
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private String objectiveFindings;
 
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private String assessment;
 
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private String plan;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id", unique = true, nullable = false)
     private Appointment appointment;
 }
@@ -1,7 +1,12 @@
 package com.example.dat.consultation.repo;
 
+import com.example.dat.consultation.dto.ConsultationDTO;
+import com.example.dat.consultation.dto.ConsultationSummaryDTO;
 import com.example.dat.consultation.entity.Consultation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,7 +14,38 @@ import java.util.Optional;
 public interface ConsultationRepo extends JpaRepository<Consultation, Long> {
 
 
-    Optional<Consultation> findByAppointmentId(Long appointmentId);
+    //the assessment is cut in the database, one character past the preview so the service can tell it was truncated
+    int ASSESSMENT_PREVIEW_LENGTH = 200;
 
-    List<Consultation> findByAppointmentPatientIdOrderByConsultationDateDesc(Long patientId);
+    String DETAIL_SELECT = "SELECT new com.example.dat.consultation.dto.ConsultationDTO(" +
+            "c.id, a.id, c.consultationDate, c.subjectiveNotes, c.objectiveFindings, c.assessment, c.plan) " +
+            "FROM Consultation c JOIN c.appointment a ";
+
+    //only the appointment's patient or doctor may read the notes; anyone else gets no row,
+    //so a foreign id looks the same as a missing one
+    String DETAIL_PARTICIPANT = "AND (a.patient.user.id = :userId OR a.doctor.user.id = :userId)";
+
+    //full notes of a single consultation: the four LOBs of one row, no entity or association loaded
+    @Query(DETAIL_SELECT + "WHERE c.id = :id " + DETAIL_PARTICIPANT)
+    Optional<ConsultationDTO> findDetailByIdForUser(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(DETAIL_SELECT + "WHERE a.id = :appointmentId " + DETAIL_PARTICIPANT)
+    Optional<ConsultationDTO> findDetailByAppointmentIdForUser(@Param("appointmentId") Long appointmentId,
+                                                              @Param("userId") Long userId);
+
+    boolean existsByAppointmentId(Long appointmentId);
+
+    //keyset page of a patient's history, newest first, projected to the list view columns in one statement
+    @Query("SELECT new com.example.dat.consultation.dto.ConsultationSummaryDTO(" +
+            "c.id, a.id, c.consultationDate, d.id, d.firstName, d.lastName, d.specialization, " +
+            "SUBSTRING(c.assessment, 1, " + (ASSESSMENT_PREVIEW_LENGTH + 1) + ")) " +
+            "FROM Consultation c JOIN c.appointment a JOIN a.doctor d " +
+            "WHERE a.patient.id = :patientId " +
+            "AND (:cursor IS NULL OR c.id < :cursor) " +
+            "ORDER BY c.id DESC")
+    List<ConsultationSummaryDTO> findPatientHistoryPage(
+            @Param("patientId") Long patientId,
+            @Param("cursor") Long cursor,
+            Pageable pageable
+    );
 }
@@ -1,16 +1,18 @@
 package com.example.dat.consultation.service;
 
 import com.example.dat.consultation.dto.ConsultationDTO;
+import com.example.dat.consultation.dto.ConsultationSummaryDTO;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 
-import java.util.List;
-
 public interface ConsultationService {
 
     Response<ConsultationDTO> createConsultation(ConsultationDTO consultationDTO);
 
     Response<ConsultationDTO> getConsultationByAppointmentId(Long appointmentId);
 
-    Response<List<ConsultationDTO>> getConsultationHistoryForPatient(Long patientId);
+    Response<ConsultationDTO> getConsultationById(Long consultationId);
+
+    Response<CursorPage<ConsultationSummaryDTO>> getConsultationHistoryForPatient(Long patientId, Long cursor, Integer size);
 
 }
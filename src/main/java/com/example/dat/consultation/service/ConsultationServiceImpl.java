@@ -2,7 +2,9 @@ package com.example.dat.consultation.service;
 
 import com.example.dat.appointment.entity.Appointment;
 import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.appointment.service.DoctorScheduleIndex;
 import com.example.dat.consultation.dto.ConsultationDTO;
+import com.example.dat.consultation.dto.ConsultationSummaryDTO;
 import com.example.dat.consultation.entity.Consultation;
 import com.example.dat.consultation.repo.ConsultationRepo;
 import com.example.dat.enums.AppointmentStatus;
@@ -10,12 +12,13 @@ import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.patient.entity.Patient;
 import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.service.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -30,17 +33,20 @@ public class ConsultationServiceImpl implements ConsultationService{
 
     private final ConsultationRepo consultationRepo;
     private final AppointmentRepo appointmentRepo;
-    private final UserService userService;
-    private final ModelMapper modelMapper;
+    private final CurrentUserResolver currentUserResolver;
     private final PatientRepo patientRepo;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Override
     public Response<ConsultationDTO> createConsultation(ConsultationDTO consultationDTO) {
 
-        User user = userService.getCurrentUser();
+        User user = currentUserResolver.getCurrentUser();
         Long appointmentId = consultationDTO.getAppointmentId();
 
-        Appointment appointment = appointmentRepo.findById(appointmentId)
+        Appointment appointment = appointmentRepo.findWithPartiesById(appointmentId)
                 .orElseThrow(() -> new NotFoundException("Appointment not found."));
 
         // Security Check 1: Must be the doctor linked to the appointment
@@ -50,9 +56,10 @@ public class ConsultationServiceImpl implements ConsultationService{
         // Complete the appointment
         appointment.setStatus(AppointmentStatus.COMPLETED);
         appointmentRepo.save(appointment);
+        doctorScheduleIndex.remove(appointment.getDoctor().getId(), appointment.getId());
 
         // Check 3: Ensure a consultation doesn't already exist for this appointment
-        if (consultationRepo.findByAppointmentId(appointmentId).isPresent()) {
+        if (consultationRepo.existsByAppointmentId(appointmentId)) {
             throw new BadRequestException("Consultation notes already exist for this appointment.");
         }
 
@@ -77,67 +84,99 @@ public class ConsultationServiceImpl implements ConsultationService{
     @Override
     public Response<ConsultationDTO> getConsultationByAppointmentId(Long appointmentId) {
 
-        User user = userService.getCurrentUser();
+        User user = currentUserResolver.getCurrentUser();
 
-        Consultation consultation = consultationRepo.findByAppointmentId(appointmentId)
+        // Security Check: only the patient or doctor of the appointment, enforced by the query
+        ConsultationDTO consultation = consultationRepo.findDetailByAppointmentIdForUser(appointmentId, user.getId())
                 .orElseThrow(() -> new NotFoundException("Consultation notes not found for appointment ID: " + appointmentId));
 
 
         return Response.<ConsultationDTO>builder()
                 .statusCode(200)
                 .message("Consultation notes retrieved successfully.")
-                .data(modelMapper.map(consultation, ConsultationDTO.class))
+                .data(consultation)
                 .build();
 
     }
 
     @Override
-    public Response<List<ConsultationDTO>> getConsultationHistoryForPatient(Long patientId) {
+    public Response<ConsultationDTO> getConsultationById(Long consultationId) {
+
+        User user = currentUserResolver.getCurrentUser();
+
+        // Security Check: only the patient or doctor of the appointment, enforced by the query
+        ConsultationDTO consultation = consultationRepo.findDetailByIdForUser(consultationId, user.getId())
+                .orElseThrow(() -> new NotFoundException("Consultation notes not found."));
+
+        return Response.<ConsultationDTO>builder()
+                .statusCode(200)
+                .message("Consultation notes retrieved successfully.")
+                .data(consultation)
+                .build();
+
+    }
 
-        User user = userService.getCurrentUser();
+    @Override
+    public Response<CursorPage<ConsultationSummaryDTO>> getConsultationHistoryForPatient(Long patientId, Long cursor, Integer size) {
 
         // 1. If patientId is null, retrieve the ID of the current authenticated patient.
         if (patientId == null) {
-            Patient currentPatient = patientRepo.findByUser(user)
+            Patient currentPatient = currentUserResolver.findCurrentPatient()
                     .orElseThrow(() -> new BadRequestException("Patient profile not found for the current user"));
             patientId = currentPatient.getId();
+        } else if (!canReadHistoryOf(patientId)) {
+            // Security Check: same answer as for an unknown patient, so ids cannot be probed
+            throw new NotFoundException("Patient not found ");
         }
 
         // Find the patient to ensure they exist (or to perform future security checks)
-        patientRepo.findById(patientId)
-                .orElseThrow(() -> new NotFoundException("Patient not found "));
+        if (!patientRepo.existsById(patientId)) {
+            throw new NotFoundException("Patient not found ");
+        }
 
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
 
-        // Use the repository method to fetch all consultations linked via appointments
-        List<Consultation> history = consultationRepo.findByAppointmentPatientIdOrderByConsultationDateDesc(patientId);
+        // Fetch one extra row to know whether another page exists
+        List<ConsultationSummaryDTO> rows = consultationRepo.findPatientHistoryPage(patientId, cursor, PageRequest.of(0, pageSize + 1));
 
-        if (history.isEmpty()) {
-            return Response.<List<ConsultationDTO>>builder()
-                    .statusCode(200)
-                    .message("No consultation history found for this patient.")
-                    .data(List.of())
-                    .build();
-        }
+        boolean hasMore = rows.size() > pageSize;
+        List<ConsultationSummaryDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        items.forEach(this::markTruncated);
 
-        List<ConsultationDTO> historyDTOs = history.stream()
-                .map(consultation -> modelMapper.map(consultation, ConsultationDTO.class))
-                .toList();
+        CursorPage<ConsultationSummaryDTO> page = CursorPage.<ConsultationSummaryDTO>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
 
-        return Response.<List<ConsultationDTO>>builder()
+        return Response.<CursorPage<ConsultationSummaryDTO>>builder()
                 .statusCode(200)
-                .message("Consultation history retrieved successfully.")
-                .data(historyDTOs)
+                .message(items.isEmpty() && cursor == null
+                        ? "No consultation history found for this patient."
+                        : "Consultation history retrieved successfully.")
+                .data(page)
                 .build();
 
     }
-}
-
-
-
-
-
-
-
-
 
+    //the patient themself, or a doctor who has had an appointment with them
+    private boolean canReadHistoryOf(Long patientId) {
+        boolean ownHistory = currentUserResolver.findCurrentPatient()
+                .map(patient -> patient.getId().equals(patientId))
+                .orElse(false);
+        if (ownHistory) {
+            return true;
+        }
+        return currentUserResolver.findCurrentDoctor()
+                .map(doctor -> appointmentRepo.existsByDoctorIdAndPatientId(doctor.getId(), patientId))
+                .orElse(false);
+    }
 
+    //the query returns one character more than the preview when the assessment is longer
+    private void markTruncated(ConsultationSummaryDTO summary) {
+        String preview = summary.getAssessmentPreview();
+        if (preview != null && preview.length() > ConsultationRepo.ASSESSMENT_PREVIEW_LENGTH) {
+            summary.setAssessmentPreview(preview.substring(0, ConsultationRepo.ASSESSMENT_PREVIEW_LENGTH) + "...");
+        }
+    }
+}
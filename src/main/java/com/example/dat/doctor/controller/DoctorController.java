@@ -1,14 +1,20 @@
 package com.example.dat.doctor.controller;
 
+import com.example.dat.doctor.dto.AvailableSlotDTO;
 import com.example.dat.doctor.dto.DoctorDTO;
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
 import com.example.dat.doctor.service.DoctorService;
+import com.example.dat.enums.DoctorSortField;
 import com.example.dat.enums.Specialization;
+import com.example.dat.res.ConditionalResponses;
 import com.example.dat.res.Response;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +23,7 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final ConditionalResponses conditionalResponses;
 
 
     @GetMapping("/me")
@@ -32,9 +39,27 @@ public class DoctorController {
     }
 
 
+    //full DoctorDTO list, the original contract; new clients should page through /search
     @GetMapping
-    public ResponseEntity<Response<List<DoctorDTO>>> getAllDoctors() {
-        return ResponseEntity.ok(doctorService.getAllDoctors());
+    public ResponseEntity<byte[]> getAllDoctors() {
+        return conditionalResponses.shared(doctorService.getAllDoctors());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> searchDoctors(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) List<Specialization> specialization,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "LAST_NAME") DoctorSortField sort) {
+        return conditionalResponses.shared(doctorService.searchDoctors(cursor, size, specialization, name, sort));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Response<List<DoctorSummaryDTO>>> suggestDoctors(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(doctorService.suggestDoctors(q, limit));
     }
 
     @GetMapping("/{doctorId}")
@@ -42,6 +67,15 @@ public class DoctorController {
         return ResponseEntity.ok(doctorService.getDoctorById(doctorId));
     }
 
+    @GetMapping("/{doctorId}/availability")
+    public ResponseEntity<Response<List<AvailableSlotDTO>>> getDoctorAvailability(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(doctorService.getDoctorAvailability(doctorId, from, to));
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<Response<List<DoctorDTO>>> searchDoctorsBySpecialization(
             @RequestParam(required = true) Specialization specialization
@@ -50,8 +84,8 @@ public class DoctorController {
     }
 
     @GetMapping("/specializations")
-    public ResponseEntity<Response<List<Specialization>>> getAllSpecializationEnums() {
-        return ResponseEntity.ok(doctorService.getAllSpecializationEnums());
+    public ResponseEntity<byte[]> getAllSpecializationEnums() {
+        return conditionalResponses.reference("specializations", doctorService::getAllSpecializationEnums);
     }
 
 
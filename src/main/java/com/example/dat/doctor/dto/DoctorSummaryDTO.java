@@ -0,0 +1,24 @@
+package com.example.dat.doctor.dto;
+
+
+import com.example.dat.enums.Specialization;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Columns shown in the doctor directory listing, filled directly by a JPQL constructor expression
+ * so a page never loads Doctor entities or their users.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DoctorSummaryDTO {
+
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private Specialization specialization;
+}
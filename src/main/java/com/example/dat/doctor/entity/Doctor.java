@@ -16,7 +16,11 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "doctors")
+@Table(name = "doctors", indexes = {
+        @Index(name = "idx_doctors_last_name_id", columnList = "last_name, id"),
+        @Index(name = "idx_doctors_specialization_last_name_id", columnList = "specialization, last_name, id"),
+        @Index(name = "idx_doctors_first_name", columnList = "first_name")
+})
 public class Doctor {
 
 
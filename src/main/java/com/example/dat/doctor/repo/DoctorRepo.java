@@ -1,10 +1,18 @@
 package com.example.dat.doctor.repo;
 
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
 import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.enums.Specialization;
 import com.example.dat.users.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +20,68 @@ public interface DoctorRepo extends JpaRepository<Doctor, Long> {
 
     Optional<Doctor> findByUser(User user);
 
+    //load the doctor profile together with its user in one query
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    Optional<Doctor> findByUserEmailWithUser(@Param("email") String email);
+
+    //directory fetch plans: doctor + user + roles in one select, as DoctorDTO maps the nested user
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    @Query("SELECT d FROM Doctor d")
+    List<Doctor> findAllWithUser();
+
+    @EntityGraph(attributePaths = {"user", "user.roles"})
     List<Doctor> findBySpecialization(Specialization specialization);
 
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<Doctor> findWithUserById(Long id);
+
+    String DIRECTORY_SELECT = "SELECT new com.example.dat.doctor.dto.DoctorSummaryDTO(" +
+            "d.id, d.firstName, d.lastName, d.specialization) " +
+            "FROM Doctor d ";
+
+    //prefix is matched with LIKE so the name indexes apply; the column collation makes it case-insensitive.
+    //without a specialization filter every doctor matches, including those who have not picked one yet
+    String DIRECTORY_FILTERS = "WHERE (:anySpecialization = true OR d.specialization IN :specializations) " +
+            "AND (:namePrefix IS NULL OR d.lastName LIKE :namePrefix ESCAPE '!' OR d.firstName LIKE :namePrefix ESCAPE '!') ";
+
+    @Query(DIRECTORY_SELECT)
+    List<DoctorSummaryDTO> findAllDirectoryEntries();
+
+    @Query(DIRECTORY_SELECT + "WHERE d.id = :id")
+    Optional<DoctorSummaryDTO> findDirectoryEntryById(@Param("id") Long id);
+
+    //keyset page of the directory ordered by id
+    @Query(DIRECTORY_SELECT + DIRECTORY_FILTERS +
+            "AND (:cursor IS NULL OR d.id > :cursor) " +
+            "ORDER BY d.id")
+    List<DoctorSummaryDTO> findDirectoryPageById(
+            @Param("anySpecialization") boolean anySpecialization,
+            @Param("specializations") Collection<Specialization> specializations,
+            @Param("namePrefix") String namePrefix,
+            @Param("cursor") Long cursor,
+            Pageable pageable
+    );
+
+    //keyset page of the directory ordered by (lastName, id); MySQL sorts null last names first,
+    //so a cursor on a doctor without a last name continues through the remaining nulls, then all named doctors
+    @Query(DIRECTORY_SELECT + DIRECTORY_FILTERS +
+            "AND (:cursor IS NULL " +
+            "OR (:cursorLastName IS NULL AND (d.lastName IS NOT NULL OR d.id > :cursor)) " +
+            "OR d.lastName > :cursorLastName " +
+            "OR (d.lastName = :cursorLastName AND d.id > :cursor)) " +
+            "ORDER BY d.lastName, d.id")
+    List<DoctorSummaryDTO> findDirectoryPageByLastName(
+            @Param("anySpecialization") boolean anySpecialization,
+            @Param("specializations") Collection<Specialization> specializations,
+            @Param("namePrefix") String namePrefix,
+            @Param("cursor") Long cursor,
+            @Param("cursorLastName") String cursorLastName,
+            Pageable pageable
+    );
+
+    //row lock on the doctor, serializes concurrent bookings for the same doctor across instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Optional<Doctor> findByIdForUpdate(@Param("id") Long id);
+
 }
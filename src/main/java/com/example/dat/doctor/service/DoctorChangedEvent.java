@@ -0,0 +1,8 @@
+package com.example.dat.doctor.service;
+
+/**
+ * Published when a doctor's directory data changes (profile update, profile picture, registration), so
+ * DoctorDirectoryCache can refresh that doctor once the change has committed.
+ */
+public record DoctorChangedEvent(Long doctorId) {
+}
@@ -0,0 +1,223 @@
+package com.example.dat.doctor.service;
+
+import com.example.dat.doctor.dto.DoctorDTO;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.enums.Specialization;
+import com.example.dat.users.dto.UserDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process copy of the public doctor directory, indexed by id and by specialization, so the landing
+ * page reads do no database work. The whole directory is one immutable snapshot that is replaced, never
+ * modified: a profile change swaps in a copy with that doctor refreshed. The DTOs in the snapshot never
+ * leave it; every lookup hands out its own copies, so a caller changing one cannot corrupt the cache.
+ * Concurrent misses (first request, expired TTL) are coalesced into a single load.
+ */
+@Component
+@Slf4j
+public class DoctorDirectoryCache {
+
+    private final DoctorRepo doctorRepo;
+    private final ModelMapper modelMapper;
+    private final long ttlNanos;
+
+    private volatile Directory directory;
+    private final AtomicReference<CompletableFuture<Directory>> inFlight = new AtomicReference<>();
+
+    // bumped on every change so a full load that raced with it is not installed over the newer data
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder loads = new LongAdder();
+
+    public DoctorDirectoryCache(DoctorRepo doctorRepo,
+                                ModelMapper modelMapper,
+                                @Value("${doctors.directory.ttl:10m}") Duration ttl) {
+        this.doctorRepo = doctorRepo;
+        this.modelMapper = modelMapper;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public List<DoctorDTO> findAll() {
+        return copies(current().all());
+    }
+
+    public List<DoctorDTO> findBySpecialization(Specialization specialization) {
+        return copies(current().bySpecialization().getOrDefault(specialization, List.of()));
+    }
+
+    /**
+     * Directory lookup. A doctor missing from the snapshot may have registered on another instance
+     * since the last load, so a miss falls back to the database and adds the doctor when found. The
+     * miss is a read, not a change: it leaves a load in flight alone, and ids that do not exist cost a
+     * query but never touch the snapshot.
+     */
+    public Optional<DoctorDTO> findById(Long doctorId) {
+        DoctorDTO cached = current().byId().get(doctorId);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+
+        Optional<DoctorDTO> fresh = doctorRepo.findWithUserById(doctorId).map(this::toDTO);
+        fresh.ifPresent(doctor -> {
+            synchronized (this) {
+                Directory current = directory;
+                if (current != null && !current.byId().containsKey(doctorId)) {
+                    directory = current.with(doctor);
+                }
+            }
+        });
+        return fresh.map(DoctorDirectoryCache::copy);
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    //runs after the change commits; without a surrounding transaction it runs right away.
+    //only real changes bump the generation, a load that read the old row must not be installed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        Long doctorId = event.doctorId();
+        generation.incrementAndGet();
+        Optional<DoctorDTO> fresh = doctorRepo.findWithUserById(doctorId).map(this::toDTO);
+
+        synchronized (this) {
+            Directory current = directory;
+            if (current != null) {
+                directory = fresh.map(current::with).orElseGet(() -> current.without(doctorId));
+            }
+        }
+    }
+
+    private Directory current() {
+        Directory current = directory;
+        if (current != null && current.expiresAt() - System.nanoTime() > 0) {
+            return current;
+        }
+        return load();
+    }
+
+    //single flight: the first caller loads, everyone arriving meanwhile waits for that result
+    private Directory load() {
+        CompletableFuture<Directory> mine = new CompletableFuture<>();
+        CompletableFuture<Directory> running = inFlight.compareAndExchange(null, mine);
+
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            long generationBeforeLoad = generation.get();
+            List<DoctorDTO> doctors = doctorRepo.findAllWithUser().stream()
+                    .map(this::toDTO)
+                    .toList();
+            Directory loaded = Directory.of(doctors, System.nanoTime() + ttlNanos);
+            loads.increment();
+
+            synchronized (this) {
+                if (generation.get() == generationBeforeLoad) {
+                    directory = loaded;
+                }
+            }
+            log.info("Doctor directory loaded with {} doctors", doctors.size());
+
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    private DoctorDTO toDTO(Doctor doctor) {
+        DoctorDTO dto = modelMapper.map(doctor, DoctorDTO.class);
+        //a password hash has no business in a public directory kept in memory
+        if (dto.getUser() != null) {
+            dto.getUser().setPassword(null);
+        }
+        return dto;
+    }
+
+    private static List<DoctorDTO> copies(List<DoctorDTO> doctors) {
+        return doctors.stream().map(DoctorDirectoryCache::copy).toList();
+    }
+
+    private static DoctorDTO copy(DoctorDTO doctor) {
+        UserDTO user = doctor.getUser();
+        return DoctorDTO.builder()
+                .id(doctor.getId())
+                .firstName(doctor.getFirstName())
+                .lastName(doctor.getLastName())
+                .specialization(doctor.getSpecialization())
+                .licenseNumber(doctor.getLicenseNumber())
+                .user(user == null ? null : UserDTO.builder()
+                        .id(user.getId())
+                        .name(user.getName())
+                        .email(user.getEmail())
+                        .profilePictureUrl(user.getProfilePictureUrl())
+                        .roles(user.getRoles() == null ? null : List.copyOf(user.getRoles()))
+                        .build())
+                .build();
+    }
+
+
+    private record Directory(List<DoctorDTO> all,
+                             Map<Long, DoctorDTO> byId,
+                             Map<Specialization, List<DoctorDTO>> bySpecialization,
+                             long expiresAt) {
+
+        static Directory of(List<DoctorDTO> doctors, long expiresAt) {
+            List<DoctorDTO> sorted = doctors.stream()
+                    .sorted(Comparator.comparing(DoctorDTO::getId))
+                    .toList();
+
+            Map<Long, DoctorDTO> byId = new LinkedHashMap<>();
+            Map<Specialization, List<DoctorDTO>> bySpecialization = new EnumMap<>(Specialization.class);
+            for (DoctorDTO doctor : sorted) {
+                byId.put(doctor.getId(), doctor);
+                if (doctor.getSpecialization() != null) {
+                    bySpecialization.computeIfAbsent(doctor.getSpecialization(), s -> new ArrayList<>()).add(doctor);
+                }
+            }
+            bySpecialization.replaceAll((specialization, list) -> List.copyOf(list));
+
+            return new Directory(sorted, Map.copyOf(byId), Map.copyOf(bySpecialization), expiresAt);
+        }
+
+        Directory with(DoctorDTO doctor) {
+            List<DoctorDTO> doctors = new ArrayList<>(all.size() + 1);
+            all.stream().filter(d -> !d.getId().equals(doctor.getId())).forEach(doctors::add);
+            doctors.add(doctor);
+            return of(doctors, expiresAt);
+        }
+
+        Directory without(Long doctorId) {
+            return of(all.stream().filter(d -> !d.getId().equals(doctorId)).toList(), expiresAt);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.dat.doctor.service;
 
+import com.example.dat.doctor.dto.AvailableSlotDTO;
 import com.example.dat.doctor.dto.DoctorDTO;
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
+import com.example.dat.enums.DoctorSortField;
 import com.example.dat.enums.Specialization;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface DoctorService {
@@ -12,9 +17,14 @@ public interface DoctorService {
     Response<DoctorDTO> getDoctorProfile();
     Response<?>updateDoctorProfile(DoctorDTO doctorDTO);
     Response<List<DoctorDTO>> getAllDoctors();
+    Response<CursorPage<DoctorSummaryDTO>> searchDoctors(Long cursor, Integer size, List<Specialization> specializations,
+                                                         String name, DoctorSortField sort);
     Response<DoctorDTO> getDoctorById(Long doctorId);
+    Response<List<DoctorSummaryDTO>> suggestDoctors(String query, Integer limit);
 
     Response<List<DoctorDTO>> searchDoctorsBySpecialization(Specialization specialization);
     Response<List<Specialization>> getAllSpecializationEnums();
 
+    Response<List<AvailableSlotDTO>> getDoctorAvailability(Long doctorId, LocalDate from, LocalDate to);
+
 }
@@ -1,20 +1,32 @@
 package com.example.dat.doctor.service;
 
+import com.example.dat.appointment.service.DoctorScheduleIndex;
+import com.example.dat.doctor.dto.AvailableSlotDTO;
 import com.example.dat.doctor.dto.DoctorDTO;
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
 import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.enums.DoctorSortField;
 import com.example.dat.enums.Specialization;
+import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
+import com.example.dat.res.CursorPage;
 import com.example.dat.res.Response;
-import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.service.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,16 +38,22 @@ public class DoctorServiceImpl implements DoctorService{
 
 
     private final DoctorRepo doctorRepo;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
     private final ModelMapper modelMapper;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final DoctorDirectoryCache doctorDirectoryCache;
+    private final DoctorSuggestIndex doctorSuggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_AVAILABILITY_DAYS = 31;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
 
     @Override
     public Response<DoctorDTO> getDoctorProfile() {
 
-        User user = userService.getCurrentUser();
-
-        Doctor doctor = doctorRepo.findByUser(user)
+        Doctor doctor = currentUserResolver.findCurrentDoctor()
                 .orElseThrow(() -> new NotFoundException("Doctor profile not found."));
 
         return Response.<DoctorDTO>builder()
@@ -48,9 +66,7 @@ public class DoctorServiceImpl implements DoctorService{
     @Override
     public Response<?> updateDoctorProfile(DoctorDTO doctorDTO) {
 
-        User currentUser = userService.getCurrentUser();
-
-        Doctor doctor = doctorRepo.findByUser(currentUser)
+        Doctor doctor = currentUserResolver.findCurrentDoctor()
                 .orElseThrow(() -> new NotFoundException("Doctor profile not found."));
 
         // Basic fields (firstName, lastName)
@@ -64,6 +80,7 @@ public class DoctorServiceImpl implements DoctorService{
         Optional.ofNullable(doctorDTO.getSpecialization()).ifPresent(doctor::setSpecialization);
 
         doctorRepo.save(doctor);
+        eventPublisher.publishEvent(new DoctorChangedEvent(doctor.getId()));
         log.info("Doctor profile updated ");
 
         return Response.builder()
@@ -76,11 +93,8 @@ public class DoctorServiceImpl implements DoctorService{
     @Override
     public Response<List<DoctorDTO>> getAllDoctors() {
 
-        List<Doctor> doctors = doctorRepo.findAll();
-
-        List<DoctorDTO> doctorDTOS = doctors.stream()
-                .map(doctor -> modelMapper.map(doctor, DoctorDTO.class))
-                .toList();
+        //served from the in-memory directory snapshot
+        List<DoctorDTO> doctorDTOS = doctorDirectoryCache.findAll();
 
         return Response.<List<DoctorDTO>>builder()
                 .statusCode(200)
@@ -90,30 +104,96 @@ public class DoctorServiceImpl implements DoctorService{
 
     }
 
+    @Override
+    public Response<CursorPage<DoctorSummaryDTO>> searchDoctors(Long cursor, Integer size, List<Specialization> specializations,
+                                                                String name, DoctorSortField sort) {
+
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        //no filter skips the IN predicate, so doctors without a specialization are listed too;
+        //the list is still bound because an empty IN list is not valid SQL
+        boolean anySpecialization = specializations == null || specializations.isEmpty();
+        Collection<Specialization> wanted = anySpecialization
+                ? EnumSet.allOf(Specialization.class)
+                : EnumSet.copyOf(specializations);
+
+        String namePrefix = StringUtils.hasText(name) ? escapeLike(name.trim()) + "%" : null;
+
+        // One projection query per page, keyed on the sort columns so deep pages cost the same as the first.
+        // Pages are not served from DoctorDirectoryCache: the filter, prefix and cursor combinations would
+        // each need their own sorted view, while the indexed query already returns just one page of rows.
+        // The unpaged getAllDoctors keeps reading the snapshot
+        List<DoctorSummaryDTO> rows;
+        if (sort == DoctorSortField.ID) {
+            rows = doctorRepo.findDirectoryPageById(anySpecialization, wanted, namePrefix, cursor, limit);
+        } else {
+            String cursorLastName = null;
+            if (cursor != null) {
+                cursorLastName = doctorRepo.findDirectoryEntryById(cursor)
+                        .orElseThrow(() -> new BadRequestException("Invalid cursor."))
+                        .getLastName();
+            }
+            rows = doctorRepo.findDirectoryPageByLastName(anySpecialization, wanted, namePrefix, cursor, cursorLastName, limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<DoctorSummaryDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        CursorPage<DoctorSummaryDTO> page = CursorPage.<DoctorSummaryDTO>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+
+        return Response.<CursorPage<DoctorSummaryDTO>>builder()
+                .statusCode(200)
+                .message("Doctors retrieved successfully.")
+                .data(page)
+                .build();
+
+    }
+
+    //the prefix is user input; make its wildcards literal
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     @Override
     public Response<DoctorDTO> getDoctorById(Long doctorId) {
 
-        Doctor doctor = doctorRepo.findById(doctorId)
+        DoctorDTO doctor = doctorDirectoryCache.findById(doctorId)
                 .orElseThrow(() -> new NotFoundException("Doctor not found"));
 
         return Response.<DoctorDTO>builder()
                 .statusCode(200)
                 .message("Doctor retrieved successfully.")
-                .data(modelMapper.map(doctor, DoctorDTO.class))
+                .data(doctor)
                 .build();
     }
 
     @Override
-    public Response<List<DoctorDTO>> searchDoctorsBySpecialization(Specialization specialization) {
+    public Response<List<DoctorSummaryDTO>> suggestDoctors(String query, Integer limit) {
 
-        List<Doctor> doctors = doctorRepo.findBySpecialization(specialization);
+        //served from the in-memory prefix index, no database access
+        List<DoctorSummaryDTO> suggestions = doctorSuggestIndex.suggest(query, limit);
 
-        List<DoctorDTO> doctorDTOs = doctors.stream()
-                .map(doctor -> modelMapper.map(doctor, DoctorDTO.class))
-                .toList();
+        return Response.<List<DoctorSummaryDTO>>builder()
+                .statusCode(200)
+                .message("Doctor suggestions retrieved successfully.")
+                .data(suggestions)
+                .build();
+    }
+
+    @Override
+    public Response<List<DoctorDTO>> searchDoctorsBySpecialization(Specialization specialization) {
 
+        List<DoctorDTO> doctorDTOs = doctorDirectoryCache.findBySpecialization(specialization);
 
-        String message = doctors.isEmpty() ?
+
+        String message = doctorDTOs.isEmpty() ?
                 "No doctors found for specialization: " + specialization.name() :
                 "Doctors retrieved successfully for specialization: " + specialization.name();
 
@@ -136,4 +216,37 @@ public class DoctorServiceImpl implements DoctorService{
                 .data(specializations)
                 .build();
     }
+
+    @Override
+    public Response<List<AvailableSlotDTO>> getDoctorAvailability(Long doctorId, LocalDate from, LocalDate to) {
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = from != null ? from : today;
+        LocalDate end = to != null ? to : start.plusDays(6);
+
+        if (end.isBefore(start)) {
+            throw new BadRequestException("'to' must not be before 'from'.");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_AVAILABILITY_DAYS) {
+            throw new BadRequestException("Availability can be requested for at most " + MAX_AVAILABILITY_DAYS + " days.");
+        }
+
+        if (doctorDirectoryCache.findById(doctorId).isEmpty()) {
+            throw new NotFoundException("Doctor not found");
+        }
+
+        // Free slots come from the in-memory occupancy bitsets, no appointment rows are read
+        List<AvailableSlotDTO> slots = doctorScheduleIndex.findFreeSlots(doctorId, start, end).stream()
+                .map(slotStart -> AvailableSlotDTO.builder()
+                        .startTime(slotStart)
+                        .endTime(slotStart.plusMinutes(60))
+                        .build())
+                .toList();
+
+        return Response.<List<AvailableSlotDTO>>builder()
+                .statusCode(200)
+                .message("Doctor availability retrieved successfully.")
+                .data(slots)
+                .build();
+    }
 }
@@ -0,0 +1,199 @@
+package com.example.dat.doctor.service;
+
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
+import com.example.dat.doctor.repo.DoctorRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead index behind GET /api/doctors/suggest. Every doctor is filed under its first name, last name,
+ * full name and specialization label, case- and accent-folded, in one sorted array; a lookup is a binary
+ * search for the prefix followed by a short forward scan. The arrays are replaced as a whole on change
+ * (copy-on-write), so readers never lock and never see a half-applied update. Change events only reach
+ * the instance that made the change, so the index is also rebuilt from the database every rebuild-interval.
+ */
+@Component
+@Slf4j
+public class DoctorSuggestIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key)
+            .thenComparing(entry -> entry.doctor().getId());
+
+    private final DoctorRepo doctorRepo;
+    private final int maxResults;
+
+    private volatile Keys keys = new Keys(new String[0], new DoctorSummaryDTO[0]);
+
+    public DoctorSuggestIndex(DoctorRepo doctorRepo,
+                              @Value("${doctors.suggest.max-results:10}") int maxResults) {
+        this.doctorRepo = doctorRepo;
+        this.maxResults = maxResults;
+    }
+
+
+    //holds the lock while reading so a change committed meanwhile is either in the read or applied after it
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${doctors.suggest.rebuild-interval:10m}",
+            fixedDelayString = "${doctors.suggest.rebuild-interval:10m}")
+    public synchronized void load() {
+        List<DoctorSummaryDTO> doctors = doctorRepo.findAllDirectoryEntries();
+        rebuild(doctors);
+        log.info("Doctor suggest index loaded with {} keys for {} doctors", keys.size(), doctors.size());
+    }
+
+    /**
+     * Up to limit (capped at doctors.suggest.max-results) distinct doctors with a key starting with the
+     * folded query, in key order. Empty until the index has loaded.
+     */
+    public List<DoctorSummaryDTO> suggest(String query, Integer limit) {
+        String prefix = fold(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        int max = (limit == null || limit <= 0) ? maxResults : Math.min(limit, maxResults);
+
+        Keys current = keys;
+        Map<Long, DoctorSummaryDTO> matches = new LinkedHashMap<>();
+        for (int i = current.lowerBound(prefix); i < current.size() && matches.size() < max; i++) {
+            if (!current.keys()[i].startsWith(prefix)) {
+                break;
+            }
+            DoctorSummaryDTO doctor = current.doctors()[i];
+            matches.putIfAbsent(doctor.getId(), doctor);
+        }
+        return List.copyOf(matches.values());
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    //runs after the change commits; without a surrounding transaction it runs right away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        replace(event.doctorId(), doctorRepo.findDirectoryEntryById(event.doctorId()).orElse(null));
+    }
+
+    synchronized void rebuild(Collection<DoctorSummaryDTO> doctors) {
+        List<Entry> entries = new ArrayList<>();
+        doctors.forEach(doctor -> entries.addAll(entriesFor(doctor)));
+        entries.sort(ORDER);
+
+        String[] newKeys = new String[entries.size()];
+        DoctorSummaryDTO[] newDoctors = new DoctorSummaryDTO[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            newKeys[i] = entries.get(i).key();
+            newDoctors[i] = entries.get(i).doctor();
+        }
+        keys = new Keys(newKeys, newDoctors);
+    }
+
+    /**
+     * Drops the doctor's old keys and merges in the new ones in one pass over the arrays, without
+     * re-sorting. A null doctor only removes.
+     */
+    synchronized void replace(Long doctorId, DoctorSummaryDTO doctor) {
+        Keys current = keys;
+        List<Entry> added = doctor == null ? new ArrayList<>() : entriesFor(doctor);
+        added.sort(ORDER);
+
+        int capacity = current.size() + added.size();
+        String[] newKeys = new String[capacity];
+        DoctorSummaryDTO[] newDoctors = new DoctorSummaryDTO[capacity];
+        int n = 0;
+        int a = 0;
+        for (int i = 0; i < current.size(); i++) {
+            DoctorSummaryDTO existing = current.doctors()[i];
+            if (existing.getId().equals(doctorId)) {
+                continue;
+            }
+            Entry entry = new Entry(current.keys()[i], existing);
+            while (a < added.size() && ORDER.compare(added.get(a), entry) < 0) {
+                newKeys[n] = added.get(a).key();
+                newDoctors[n++] = added.get(a++).doctor();
+            }
+            newKeys[n] = entry.key();
+            newDoctors[n++] = existing;
+        }
+        while (a < added.size()) {
+            newKeys[n] = added.get(a).key();
+            newDoctors[n++] = added.get(a++).doctor();
+        }
+        keys = new Keys(Arrays.copyOf(newKeys, n), Arrays.copyOf(newDoctors, n));
+    }
+
+    //lower case, accents stripped, whitespace collapsed: "  José  Núñez" -> "jose nunez"
+    static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private static List<Entry> entriesFor(DoctorSummaryDTO doctor) {
+        Set<String> names = new LinkedHashSet<>();
+        String firstName = fold(doctor.getFirstName());
+        String lastName = fold(doctor.getLastName());
+        names.add(firstName);
+        names.add(lastName);
+        if (!firstName.isEmpty() && !lastName.isEmpty()) {
+            names.add(firstName + " " + lastName);
+        }
+        if (doctor.getSpecialization() != null) {
+            names.add(fold(doctor.getSpecialization().name().replace('_', ' ')));
+        }
+        names.remove("");
+
+        List<Entry> entries = new ArrayList<>(names.size());
+        names.forEach(key -> entries.add(new Entry(key, doctor)));
+        return entries;
+    }
+
+    private record Entry(String key, DoctorSummaryDTO doctor) {
+    }
+
+    //parallel arrays sorted by (key, doctor id)
+    private record Keys(String[] keys, DoctorSummaryDTO[] doctors) {
+
+        int size() {
+            return keys.length;
+        }
+
+        //first index whose key is >= prefix
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
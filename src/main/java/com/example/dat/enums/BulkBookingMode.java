@@ -0,0 +1,6 @@
+package com.example.dat.enums;
+
+public enum BulkBookingMode {
+    ALL_OR_NOTHING, // any rejected slot fails the whole request
+    BEST_EFFORT     // book the free slots, report the rest
+}
@@ -0,0 +1,6 @@
+package com.example.dat.enums;
+
+public enum DoctorSortField {
+    LAST_NAME, // last name, then id; doctors without a last name come first
+    ID
+}
@@ -0,0 +1,8 @@
+package com.example.dat.enums;
+
+public enum NotificationStatus {
+    PENDING, // waiting in the outbox for the relay
+    SENT,
+    FAILED,  // last attempt failed, retried after a backoff
+    DEAD     // gave up after the maximum attempts, waits for an admin to requeue it
+}
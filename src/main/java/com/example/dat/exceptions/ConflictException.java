@@ -0,0 +1,7 @@
+package com.example.dat.exceptions;
+
+public class ConflictException extends RuntimeException{
+    public ConflictException(String ex){
+        super(ex);
+    }
+}
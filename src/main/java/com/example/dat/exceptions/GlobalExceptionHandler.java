@@ -2,6 +2,7 @@ package com.example.dat.exceptions;
 
 
 import com.example.dat.res.Response;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -40,4 +41,36 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Response<?>> handleConflictException(ConflictException ex){
+        Response<?> response = Response.builder()
+                .statusCode(HttpStatus.CONFLICT.value()) //409
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Response<?>> handleServiceUnavailableException(ServiceUnavailableException ex){
+        Response<?> response = Response.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value()) //503
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Response<?>> handleTooManyRequestsException(TooManyRequestsException ex){
+        Response<?> response = Response.builder()
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value()) //429
+                .message(ex.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+
 }
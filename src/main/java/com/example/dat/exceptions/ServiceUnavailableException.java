@@ -0,0 +1,7 @@
+package com.example.dat.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException{
+    public ServiceUnavailableException(String ex){
+        super(ex);
+    }
+}
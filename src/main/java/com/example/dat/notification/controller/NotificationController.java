@@ -0,0 +1,41 @@
+package com.example.dat.notification.controller;
+
+
+import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.notification.dto.NotificationMetricsDTO;
+import com.example.dat.notification.service.NotificationService;
+import com.example.dat.res.CursorPage;
+import com.example.dat.res.Response;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN')")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping("/metrics")
+    public ResponseEntity<Response<NotificationMetricsDTO>> getDeliveryMetrics(){
+        return ResponseEntity.ok(notificationService.getDeliveryMetrics());
+    }
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<Response<CursorPage<NotificationDTO>>> getDeadLetters(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size){
+        return ResponseEntity.ok(notificationService.getDeadLetters(cursor, size));
+    }
+
+    // body: ids to requeue; empty or missing requeues every dead letter
+    @PostMapping("/dead-letters/requeue")
+    public ResponseEntity<Response<Integer>> requeueDeadLetters(@RequestBody(required = false) List<Long> ids){
+        return ResponseEntity.ok(notificationService.requeueDeadLetters(ids));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.dat.notification.dto;
 
 
+import com.example.dat.enums.NotificationStatus;
 import com.example.dat.enums.NotificationType;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -33,6 +34,10 @@ public class NotificationDTO {
 
     private NotificationType type;
 
+    private NotificationStatus status;
+    private Integer attempts;
+    private String lastError;
+
     private LocalDateTime createdAt;
 
     private String templateName;
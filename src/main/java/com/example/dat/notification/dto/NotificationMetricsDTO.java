@@ -0,0 +1,49 @@
+package com.example.dat.notification.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMetricsDTO {
+
+    // executor
+    private String threadMode; // platform or virtual
+    private String overflowPolicy;
+    private Integer activeThreads;
+    private Integer queueDepth;
+    private Long completedTasks;
+    private Long failedTasks;
+    private Double averageQueueMillis;
+    private Double averageRunMillis;
+
+    // overflow counts
+    private Long callerRunsCount;
+    private Long spilledCount;
+    private Long droppedCount;
+
+    // smtp connection pool
+    private Long smtpConnectionsOpened;
+    private Long smtpMessagesSent;
+    private Long smtpMessagesFailed;
+
+    // write-behind notifications log; buffered rows are what a crash would lose
+    private Integer logBuffered;
+    private Long logOldestBufferedMillis;
+    private Long logFlushedRows;
+    private Long logDroppedRows;
+
+    // outbox
+    private Long pendingInOutbox;
+    private Long failedInOutbox;
+    private Long deadInOutbox;
+}
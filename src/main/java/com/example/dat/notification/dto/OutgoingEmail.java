@@ -0,0 +1,7 @@
+package com.example.dat.notification.dto;
+
+import com.example.dat.users.entity.User;
+
+//an email handed to NotificationService.deliverBatch together with the user it is logged against
+public record OutgoingEmail(NotificationDTO notification, User user) {
+}
@@ -1,6 +1,7 @@
 package com.example.dat.notification.entity;
 
 
+import com.example.dat.enums.NotificationStatus;
 import com.example.dat.enums.NotificationType;
 import com.example.dat.users.entity.User;
 import jakarta.persistence.*;
@@ -21,7 +22,8 @@ public class Notification {
 
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     private String subject;
@@ -32,6 +34,9 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private NotificationType type; // EMAIL, SMS, PUSH
 
+    @Enumerated(EnumType.STRING)
+    private NotificationStatus status; // SENT or DEAD
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
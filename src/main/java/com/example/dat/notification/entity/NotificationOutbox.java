@@ -0,0 +1,67 @@
+package com.example.dat.notification.entity;
+
+
+import com.example.dat.enums.NotificationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be sent. Rows are written in the same transaction as the business change that
+ * triggers them and picked up by NotificationOutboxRelay once that transaction has committed.
+ */
+@Entity
+@Table(name = "notification_outbox",
+        indexes = @Index(name = "idx_notification_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    private String recipient;
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    private String templateName;
+
+    // template variables as JSON, rendered by the relay at send time
+    @Column(columnDefinition = "TEXT")
+    private String templateVariables;
+
+    // id only, the relay does not need the user loaded
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private NotificationStatus status;
+
+    // claim lease: while in the future, another relay pass will not pick the row up
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime processedAt;
+
+    // delivery attempts so far, drives the backoff and the dead-letter cut-off
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
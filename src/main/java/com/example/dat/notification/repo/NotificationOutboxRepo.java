@@ -0,0 +1,79 @@
+package com.example.dat.notification.repo;
+
+import com.example.dat.enums.NotificationStatus;
+import com.example.dat.notification.entity.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationOutboxRepo extends JpaRepository<NotificationOutbox, Long> {
+
+    //claim query: due rows only, rows locked by another relay instance are skipped (lock timeout -2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM NotificationOutbox o " +
+            "WHERE o.status IN :statuses " +
+            "AND (o.nextAttemptAt IS NULL OR o.nextAttemptAt <= :now) " +
+            "AND (o.lockedUntil IS NULL OR o.lockedUntil < :now) " +
+            "ORDER BY o.id")
+    List<NotificationOutbox> findClaimable(
+            @Param("statuses") Collection<NotificationStatus> statuses,
+            @Param("now") LocalDateTime now,
+            Pageable pageable
+    );
+
+    //keyset page of rows in one status, newest first
+    @Query("SELECT o FROM NotificationOutbox o " +
+            "WHERE o.status = :status " +
+            "AND (:cursor IS NULL OR o.id < :cursor) " +
+            "ORDER BY o.id DESC")
+    List<NotificationOutbox> findPageByStatus(
+            @Param("status") NotificationStatus status,
+            @Param("cursor") Long cursor,
+            Pageable pageable
+    );
+
+    String REQUEUE = "UPDATE NotificationOutbox o SET o.status = com.example.dat.enums.NotificationStatus.PENDING, " +
+            "o.attempts = 0, o.nextAttemptAt = NULL, o.lockedUntil = NULL, o.processedAt = NULL, o.lastError = NULL " +
+            "WHERE o.status = com.example.dat.enums.NotificationStatus.DEAD ";
+
+    @Modifying
+    @Query(REQUEUE + "AND o.id IN :ids")
+    int requeueDead(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(REQUEUE)
+    int requeueAllDead();
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.processedAt = :processedAt, o.lockedUntil = NULL " +
+            "WHERE o.id IN :ids")
+    int markProcessed(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") NotificationStatus status,
+            @Param("processedAt") LocalDateTime processedAt
+    );
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.lockedUntil = NULL WHERE o.id IN :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = :status AND o.processedAt < :before")
+    int deleteProcessedBefore(
+            @Param("status") NotificationStatus status,
+            @Param("before") LocalDateTime before
+    );
+
+    long countByStatus(NotificationStatus status);
+}
@@ -0,0 +1,102 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.cache.BoundedTtlCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders the email templates. Every template under templates/ is parsed into the engine's template
+ * cache while the context starts, so the first email after a deploy does not pay the parse cost.
+ * Optionally the rendered HTML is cached too, keyed by template and variables; that only pays off for
+ * emails sent with identical variables (broadcasts, static notices) and is off by default.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRenderer {
+
+    private static final String TEMPLATE_LOCATION = "classpath*:templates/*.html";
+
+    private final TemplateEngine templateEngine;
+    private final boolean outputCacheEnabled;
+
+    private final BoundedTtlCache<RenderKey, String> outputCache;
+
+    public EmailTemplateRenderer(TemplateEngine templateEngine,
+                                 @Value("${notifications.templates.output-cache.enabled:false}") boolean outputCacheEnabled,
+                                 @Value("${notifications.templates.output-cache.max-size:500}") int outputCacheMaxSize,
+                                 @Value("${notifications.templates.output-cache.ttl:10m}") Duration outputCacheTtl) {
+        this.templateEngine = templateEngine;
+        this.outputCacheEnabled = outputCacheEnabled;
+        this.outputCache = new BoundedTtlCache<>(outputCacheMaxSize, outputCacheTtl);
+    }
+
+    /**
+     * Parses every template once. Processing with an empty context may fail on expressions that need
+     * variables, but by then the parsed template is already in the engine's cache, which is all we want.
+     */
+    @PostConstruct
+    public void precompile() throws IOException {
+        long start = System.nanoTime();
+        int parsed = 0;
+
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(TEMPLATE_LOCATION)) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String templateName = filename.substring(0, filename.length() - ".html".length());
+            try {
+                templateEngine.process(templateName, new Context());
+            } catch (Exception e) {
+                log.debug("Template {} parsed, sample render without variables failed: {}", templateName, e.getMessage());
+            }
+            parsed++;
+        }
+        log.info("Precompiled {} email templates in {} ms", parsed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public String render(String templateName, Map<String, Object> variables) {
+        if (!outputCacheEnabled) {
+            return process(templateName, variables);
+        }
+
+        RenderKey key = new RenderKey(templateName, variables != null ? new HashMap<>(variables) : Map.of());
+        String cached = outputCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String html = process(templateName, variables);
+        outputCache.put(key, html);
+        return html;
+    }
+
+    public long getOutputCacheHits() {
+        return outputCache.getHits();
+    }
+
+    public long getOutputCacheMisses() {
+        return outputCache.getMisses();
+    }
+
+    private String process(String templateName, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return templateEngine.process(templateName, context);
+    }
+
+
+    private record RenderKey(String templateName, Map<String, Object> variables) {
+    }
+}
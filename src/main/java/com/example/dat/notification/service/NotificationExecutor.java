@@ -0,0 +1,201 @@
+package com.example.dat.notification.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dedicated, bounded pool for the blocking SMTP sends. In platform mode it is a fixed pool with a bounded
+ * queue; in virtual mode every send gets a virtual thread and a semaphore caps how many are in flight.
+ * What happens when it is full is decided by the overflow policy:
+ * CALLER_RUNS sends on the submitting (relay) thread, SPILL hands the email back to the outbox for a
+ * later pass, DROP skips it for this pass and counts it (the outbox lease brings it back later).
+ */
+@Component
+@Slf4j
+@DependsOn("notificationLogWriter") // destroyed first, so sends still draining on shutdown reach the log writer
+public class NotificationExecutor {
+
+    public enum OverflowPolicy {
+        CALLER_RUNS, SPILL, DROP
+    }
+
+    private final OverflowPolicy overflowPolicy;
+    private final boolean virtualThreads;
+    private final ExecutorService executor;
+    private final Semaphore inFlightPermits; // virtual mode only
+
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder failedTasks = new LongAdder();
+    private final LongAdder callerRunsCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+
+    public NotificationExecutor(@Value("${notifications.executor.pool-size:4}") int poolSize,
+                                @Value("${notifications.executor.queue-capacity:200}") int queueCapacity,
+                                @Value("${notifications.executor.overflow:SPILL}") OverflowPolicy overflowPolicy,
+                                @Value("${notifications.executor.virtual-threads:false}") boolean virtualThreads) {
+        this.overflowPolicy = overflowPolicy;
+        this.virtualThreads = virtualThreads;
+
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notification-", 0).factory());
+            this.inFlightPermits = new Semaphore(poolSize + queueCapacity);
+        } else {
+            this.executor = new ThreadPoolExecutor(
+                    poolSize, poolSize,
+                    0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    new CustomizableThreadFactory("notification-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.inFlightPermits = null;
+        }
+        log.info("Notification executor started: {} threads, pool size {}, queue capacity {}, overflow {}",
+                virtualThreads ? "virtual" : "platform", poolSize, queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Runs the send on the pool. The future completes when the send finishes (exceptionally if it threw).
+     * Returns null when the pool is full and the policy is SPILL or DROP, i.e. the task was not run.
+     */
+    public CompletableFuture<Void> submit(Runnable task) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Runnable timed = () -> run(task, submittedAt, result);
+
+        if (tryExecute(timed)) {
+            return result;
+        }
+
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> {
+                callerRunsCount.increment();
+                timed.run();
+                return result;
+            }
+            case SPILL -> spilledCount.increment();
+            case DROP -> droppedCount.increment();
+        }
+        return null;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getActiveThreads() {
+        return activeTasks.get();
+    }
+
+    public int getQueueDepth() {
+        return executor instanceof ThreadPoolExecutor pool ? pool.getQueue().size() : 0;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.sum();
+    }
+
+    public long getFailedTasks() {
+        return failedTasks.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public double getAverageQueueMillis() {
+        long finished = completedTasks.sum() + failedTasks.sum();
+        return finished == 0 ? 0 : totalQueueNanos.sum() / 1_000_000.0 / finished;
+    }
+
+    public double getAverageRunMillis() {
+        long finished = completedTasks.sum() + failedTasks.sum();
+        return finished == 0 ? 0 : totalRunNanos.sum() / 1_000_000.0 / finished;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Notification executor did not drain in time, {} sends abandoned", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean tryExecute(Runnable timed) {
+        if (inFlightPermits != null) {
+            if (!inFlightPermits.tryAcquire()) {
+                return false;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        timed.run();
+                    } finally {
+                        inFlightPermits.release();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                inFlightPermits.release();
+                return false;
+            }
+        }
+        try {
+            executor.execute(timed);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void run(Runnable task, long submittedAt, CompletableFuture<Void> result) {
+        long startedAt = System.nanoTime();
+        totalQueueNanos.add(startedAt - submittedAt);
+        activeTasks.incrementAndGet();
+        try {
+            task.run();
+            completedTasks.increment();
+            result.complete(null);
+        } catch (Throwable e) {
+            failedTasks.increment();
+            result.completeExceptionally(e);
+        } finally {
+            activeTasks.decrementAndGet();
+            totalRunNanos.add(System.nanoTime() - startedAt);
+        }
+    }
+}
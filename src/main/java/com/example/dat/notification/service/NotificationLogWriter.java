@@ -0,0 +1,176 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.notification.entity.Notification;
+import com.example.dat.notification.repo.NotificationRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for the notifications log. Senders append to a lock-free queue and a single
+ * flusher thread writes the rows with one batched saveAll every flush-size rows or flush-interval,
+ * whichever comes first. Whatever is buffered is flushed on shutdown. The rows a crash can lose are
+ * the ones still buffered, reported by getBufferedCount and getOldestBufferedMillis. While the database
+ * accepts writes that is about flush-size rows or flush-interval worth of sends. A failed flush puts its
+ * rows back ahead of everything newer, so they are retried first and still count as the oldest. During
+ * a database outage the buffer keeps growing up to max-buffered rows, and a crash then loses all of them;
+ * past max-buffered new rows are dropped outright and counted in getDroppedRows.
+ */
+@Component
+@Slf4j
+public class NotificationLogWriter {
+
+    private final NotificationRepo notificationRepo;
+    private final int flushSize;
+    private final int maxBuffered;
+    private final ScheduledExecutorService flusher;
+
+    private final Queue<Pending> buffer = new ConcurrentLinkedQueue<>();
+    // rows of failed flushes, oldest first; always older than anything in buffer and drained before it
+    private final Deque<Pending> retries = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger bufferedCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder droppedRows = new LongAdder();
+
+    public NotificationLogWriter(NotificationRepo notificationRepo,
+                                 @Value("${notifications.log.flush-size:100}") int flushSize,
+                                 @Value("${notifications.log.flush-interval:1s}") Duration flushInterval,
+                                 @Value("${notifications.log.max-buffered:10000}") int maxBuffered) {
+        this.notificationRepo = notificationRepo;
+        this.flushSize = flushSize;
+        this.maxBuffered = maxBuffered;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-log-"));
+        long intervalMillis = flushInterval.toMillis();
+        this.flusher.scheduleWithFixedDelay(this::flushSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void append(List<Notification> notifications) {
+        long now = System.nanoTime();
+        for (Notification notification : notifications) {
+            // the log must not grow without bound while the database is down
+            if (bufferedCount.get() >= maxBuffered) {
+                droppedRows.increment();
+                continue;
+            }
+            buffer.offer(new Pending(notification, now));
+            bufferedCount.incrementAndGet();
+        }
+
+        // a full batch is written right away instead of waiting for the timer
+        if (bufferedCount.get() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushSafely);
+        }
+    }
+
+    public int getBufferedCount() {
+        return bufferedCount.get();
+    }
+
+    //age of the oldest row not yet written, i.e. the window a crash right now would lose
+    public long getOldestBufferedMillis() {
+        Pending oldest = retries.peekFirst();
+        if (oldest == null) {
+            oldest = buffer.peek();
+        }
+        return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAt());
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.sum();
+    }
+
+    public long getDroppedRows() {
+        return droppedRows.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // drain on the calling thread, the flusher no longer runs
+        while (bufferedCount.get() > 0 && flush()) {
+            // keep flushing full batches
+        }
+        if (bufferedCount.get() > 0) {
+            log.warn("{} notification log rows could not be written on shutdown", bufferedCount.get());
+        }
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        try {
+            while (flush() && bufferedCount.get() >= flushSize) {
+                // keep up while senders outpace the timer
+            }
+        } catch (RuntimeException e) {
+            log.error("Notification log flush failed: {}", e.getMessage());
+        }
+    }
+
+    //writes up to flush-size rows in one batch; on failure they go back to the buffer for the next run
+    private synchronized boolean flush() {
+        List<Pending> batch = new ArrayList<>(flushSize);
+        Pending pending;
+        while (batch.size() < flushSize && (pending = retries.pollFirst()) != null) {
+            batch.add(pending);
+        }
+        while (batch.size() < flushSize && (pending = buffer.poll()) != null) {
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        bufferedCount.addAndGet(-batch.size());
+
+        try {
+            notificationRepo.saveAll(batch.stream().map(Pending::notification).toList());
+            flushedRows.add(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            requeue(batch);
+            log.error("Could not write {} notification log rows, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    //back at the head in their original order, so the next flush retries them first
+    private void requeue(List<Pending> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (bufferedCount.get() >= maxBuffered) {
+                droppedRows.increment();
+                continue;
+            }
+            Pending pending = batch.get(i);
+            pending.notification().setId(null);
+            retries.offerFirst(pending);
+            bufferedCount.incrementAndGet();
+        }
+    }
+
+
+    private record Pending(Notification notification, long enqueuedAt) {
+    }
+}
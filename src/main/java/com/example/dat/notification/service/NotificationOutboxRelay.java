@@ -0,0 +1,230 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.enums.NotificationStatus;
+import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.notification.dto.OutgoingEmail;
+import com.example.dat.notification.entity.NotificationOutbox;
+import com.example.dat.notification.repo.NotificationOutboxRepo;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drains the notification outbox. Each pass claims up to batch-size due PENDING or FAILED rows (SKIP LOCKED
+ * plus a lease, so several instances can run it), sends them in chunks on the NotificationExecutor outside
+ * any transaction (each chunk over one pooled SMTP connection) and records the outcome in one transaction:
+ * sent rows are marked SENT, failed rows are rescheduled with backoff or dead-lettered. The lease only
+ * matters if an instance dies mid-send. batch-size per poll-interval is the ceiling on the send rate,
+ * which is what keeps a backlog drain after an SMTP outage from flooding the mail server.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationOutboxRelay {
+
+    private static final TypeReference<Map<String, Object>> VARIABLES = new TypeReference<>() {};
+
+    private static final List<NotificationStatus> CLAIMABLE = List.of(NotificationStatus.PENDING, NotificationStatus.FAILED);
+
+    private final NotificationOutboxRepo notificationOutboxRepo;
+    private final NotificationService notificationService;
+    private final NotificationExecutor notificationExecutor;
+    private final UserRepo userRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${notifications.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.chunk-size:10}")
+    private int chunkSize;
+
+    @Value("${notifications.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${notifications.outbox.retention:7d}")
+    private Duration retention;
+
+    @Value("${notifications.retry.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${notifications.retry.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${notifications.retry.max-backoff:1h}")
+    private Duration maxBackoff;
+
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval:2s}")
+    public void relay() {
+
+        List<NotificationOutbox> claimed = claimBatch();
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        // split the batch into chunks, each sent by one pool task over one SMTP connection,
+        // then wait for all of them so the outcome can be written in one transaction
+        Map<Long, OutgoingEmail> emailsById = new HashMap<>();
+        List<SubmittedChunk> submitted = new ArrayList<>();
+        Queue<Long> sentQueue = new ConcurrentLinkedQueue<>();
+        Map<Long, String> failures = new ConcurrentHashMap<>();
+        List<Long> spilled = new ArrayList<>();
+
+        for (int from = 0; from < claimed.size(); from += chunkSize) {
+            List<NotificationOutbox> chunk = claimed.subList(from, Math.min(from + chunkSize, claimed.size()));
+            List<OutgoingEmail> emails = chunk.stream()
+                    .map(outbox -> new OutgoingEmail(toNotificationDTO(outbox), userReference(outbox.getUserId())))
+                    .toList();
+            emails.forEach(email -> emailsById.put(email.notification().getId(), email));
+
+            CompletableFuture<Void> future = notificationExecutor.submit(() -> {
+                List<Exception> results = notificationService.deliverBatch(emails);
+                for (int i = 0; i < emails.size(); i++) {
+                    Long id = emails.get(i).notification().getId();
+                    if (results.get(i) == null) {
+                        sentQueue.add(id);
+                    } else {
+                        failures.put(id, describe(results.get(i)));
+                    }
+                }
+            });
+
+            if (future != null) {
+                submitted.add(new SubmittedChunk(chunk, future));
+            } else if (notificationExecutor.getOverflowPolicy() == NotificationExecutor.OverflowPolicy.SPILL) {
+                chunk.forEach(outbox -> spilled.add(outbox.getId()));
+            }
+        }
+
+        for (SubmittedChunk chunk : submitted) {
+            try {
+                chunk.future().join();
+            } catch (CompletionException e) {
+                // the whole task failed, every email in it counts as a failed attempt
+                chunk.rows().forEach(row -> failures.put(row.getId(), describe(e.getCause())));
+            }
+        }
+        List<Long> sent = new ArrayList<>(sentQueue);
+
+        List<Long> dead = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!sent.isEmpty()) {
+                notificationOutboxRepo.markProcessed(sent, NotificationStatus.SENT, now);
+            }
+            // the pool was full, give these back to the outbox for the next pass
+            if (!spilled.isEmpty()) {
+                notificationOutboxRepo.releaseClaims(spilled);
+            }
+            return failures.isEmpty() ? List.<Long>of() : scheduleRetries(failures, now);
+        });
+
+        if (!dead.isEmpty()) {
+            notificationService.recordDeadLetters(dead.stream().map(emailsById::get).toList());
+            log.warn("{} emails dead-lettered after {} attempts", dead.size(), maxAttempts);
+        }
+        log.info("Outbox relay sent {} of {} claimed emails, {} failed", sent.size(), claimed.size(), failures.size());
+    }
+
+    //sent rows are only kept for troubleshooting
+    @Scheduled(fixedDelayString = "${notifications.outbox.purge-interval:1h}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                notificationOutboxRepo.deleteProcessedBefore(NotificationStatus.SENT, LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} sent outbox rows", purged);
+        }
+    }
+
+    //short transaction: lock the due rows, stamp the lease, commit so the locks are released before sending
+    private List<NotificationOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> rows = notificationOutboxRepo.findClaimable(
+                    CLAIMABLE, now, PageRequest.of(0, batchSize));
+
+            LocalDateTime lockedUntil = now.plus(lease);
+            rows.forEach(row -> row.setLockedUntil(lockedUntil));
+            return rows;
+        });
+    }
+
+    /**
+     * Failed rows get another attempt after an exponential backoff (initial-backoff * 2^(attempts-1),
+     * capped at max-backoff) with equal jitter, so the retries after an SMTP outage spread out instead
+     * of arriving together. Rows out of attempts become DEAD; their ids are returned.
+     */
+    List<Long> scheduleRetries(Map<Long, String> failures, LocalDateTime now) {
+        List<Long> dead = new ArrayList<>();
+
+        for (NotificationOutbox row : notificationOutboxRepo.findAllById(failures.keySet())) {
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLastError(failures.get(row.getId()));
+            row.setLockedUntil(null);
+
+            if (row.getAttempts() >= maxAttempts) {
+                row.setStatus(NotificationStatus.DEAD);
+                row.setNextAttemptAt(null);
+                row.setProcessedAt(now);
+                dead.add(row.getId());
+            } else {
+                row.setStatus(NotificationStatus.FAILED);
+                row.setNextAttemptAt(now.plus(backoff(row.getAttempts())));
+            }
+        }
+        return dead;
+    }
+
+    Duration backoff(int attempts) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private static String describe(Throwable e) {
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private NotificationDTO toNotificationDTO(NotificationOutbox outbox) {
+        return NotificationDTO.builder()
+                .id(outbox.getId())
+                .recipient(outbox.getRecipient())
+                .subject(outbox.getSubject())
+                .message(outbox.getMessage())
+                .templateName(outbox.getTemplateName())
+                .templateVariables(outbox.getTemplateVariables() != null
+                        ? objectMapper.readValue(outbox.getTemplateVariables(), VARIABLES)
+                        : null)
+                .build();
+    }
+
+    private User userReference(Long userId) {
+        return userId != null ? userRepo.getReferenceById(userId) : null;
+    }
+
+
+    private record SubmittedChunk(List<NotificationOutbox> rows, CompletableFuture<Void> future) {
+    }
+}
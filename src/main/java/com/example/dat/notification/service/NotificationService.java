@@ -1,8 +1,28 @@
 package com.example.dat.notification.service;
 
 import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.notification.dto.NotificationMetricsDTO;
+import com.example.dat.notification.dto.OutgoingEmail;
+import com.example.dat.res.CursorPage;
+import com.example.dat.res.Response;
 import com.example.dat.users.entity.User;
 
+import java.util.List;
+
 public interface NotificationService {
-    void sendEmail(NotificationDTO notificationDTO, User user);
+
+    // writes the email to the outbox, in the caller's transaction when there is one
+    void queueEmail(NotificationDTO notificationDTO, User user);
+
+    // renders and sends the emails over one SMTP connection; one entry per email, null when it was sent
+    List<Exception> deliverBatch(List<OutgoingEmail> emails);
+
+    // logs emails the relay gave up on
+    void recordDeadLetters(List<OutgoingEmail> emails);
+
+    Response<NotificationMetricsDTO> getDeliveryMetrics();
+
+    Response<CursorPage<NotificationDTO>> getDeadLetters(Long cursor, Integer size);
+
+    Response<Integer> requeueDeadLetters(List<Long> ids);
 }
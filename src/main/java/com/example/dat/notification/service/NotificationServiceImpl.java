@@ -1,81 +1,241 @@
 package com.example.dat.notification.service;
 
+import com.example.dat.enums.NotificationStatus;
 import com.example.dat.enums.NotificationType;
 import com.example.dat.notification.dto.NotificationDTO;
+import com.example.dat.notification.dto.NotificationMetricsDTO;
+import com.example.dat.notification.dto.OutgoingEmail;
 import com.example.dat.notification.entity.Notification;
-import com.example.dat.notification.repo.NotificationRepo;
+import com.example.dat.notification.entity.NotificationOutbox;
+import com.example.dat.notification.repo.NotificationOutboxRepo;
+import com.example.dat.res.CursorPage;
+import com.example.dat.res.Response;
 import com.example.dat.users.entity.User;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService{
 
-    private final NotificationRepo notificationRepo;
+    private final NotificationLogWriter notificationLogWriter;
+    private final NotificationOutboxRepo notificationOutboxRepo;
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final ObjectMapper objectMapper;
+    private final NotificationExecutor notificationExecutor;
+    private final SmtpTransportPool smtpTransportPool;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
 
     @Override
-    @Async
-    public void sendEmail(NotificationDTO notificationDTO, User user) {
+    @Transactional
+    public void queueEmail(NotificationDTO notificationDTO, User user) {
+
+        NotificationOutbox outbox = NotificationOutbox.builder()
+                .recipient(notificationDTO.getRecipient())
+                .subject(notificationDTO.getSubject())
+                .message(notificationDTO.getMessage())
+                .templateName(notificationDTO.getTemplateName())
+                .templateVariables(notificationDTO.getTemplateVariables() != null
+                        ? objectMapper.writeValueAsString(notificationDTO.getTemplateVariables())
+                        : null)
+                .userId(user != null ? user.getId() : null)
+                .status(NotificationStatus.PENDING)
+                .build();
+
+        notificationOutboxRepo.save(outbox);
+        log.info("Queued email '{}' for {}", notificationDTO.getSubject(), notificationDTO.getRecipient());
+    }
 
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
+    @Override
+    public List<Exception> deliverBatch(List<OutgoingEmail> emails) {
+
+        List<Exception> results = new ArrayList<>(Collections.nCopies(emails.size(), null));
+        List<Integer> prepared = new ArrayList<>(emails.size());
+        List<MimeMessage> messages = new ArrayList<>(emails.size());
+
+        for (int i = 0; i < emails.size(); i++) {
+            try {
+                messages.add(buildMessage(emails.get(i).notification()));
+                prepared.add(i);
+            } catch (Exception e) {
+                results.set(i, e);
+            }
+        }
 
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    mimeMessage,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
+        // the whole batch goes out over one pooled SMTP connection
+        List<Exception> failures = smtpTransportPool.sendBatch(messages);
+        for (int i = 0; i < prepared.size(); i++) {
+            results.set(prepared.get(i), failures.get(i));
+        }
 
-            helper.setTo(notificationDTO.getRecipient());
-            helper.setSubject(notificationDTO.getSubject());
+        List<Notification> notificationsToSave = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            OutgoingEmail email = emails.get(i);
+            if (results.get(i) == null) {
+                notificationsToSave.add(toLogEntry(email, NotificationStatus.SENT));
+            } else {
+                log.warn("Email to {} failed: {}", email.notification().getRecipient(), results.get(i).getMessage());
+            }
+        }
+        log.info("Email batch sent out: {} of {}", notificationsToSave.size(), emails.size());
 
 
-            // Use template if provided
-            if (notificationDTO.getTemplateName() != null){
+        //save to our database table, written behind in batches, off the sending thread
+        notificationLogWriter.append(notificationsToSave);
 
-                Context context = new Context();
-                context.setVariables(notificationDTO.getTemplateVariables());
-                String htmlContent = templateEngine.process(notificationDTO.getTemplateName(), context);
+        return results;
+    }
 
-                helper.setText(htmlContent, true);
+    @Override
+    public void recordDeadLetters(List<OutgoingEmail> emails) {
+        notificationLogWriter.append(emails.stream()
+                .map(email -> toLogEntry(email, NotificationStatus.DEAD))
+                .toList());
+    }
 
-            }else{
-                helper.setText(notificationDTO.getMessage(), true);
-            }
+    @Override
+    public Response<CursorPage<NotificationDTO>> getDeadLetters(Long cursor, Integer size) {
+
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether another page exists
+        List<NotificationOutbox> rows = notificationOutboxRepo.findPageByStatus(
+                NotificationStatus.DEAD, cursor, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationDTO> items = (hasMore ? rows.subList(0, pageSize) : rows).stream()
+                .map(row -> NotificationDTO.builder()
+                        .id(row.getId())
+                        .recipient(row.getRecipient())
+                        .subject(row.getSubject())
+                        .templateName(row.getTemplateName())
+                        .type(NotificationType.EMAIL)
+                        .status(row.getStatus())
+                        .attempts(row.getAttempts())
+                        .lastError(row.getLastError())
+                        .createdAt(row.getCreatedAt())
+                        .build())
+                .toList();
+
+        CursorPage<NotificationDTO> page = CursorPage.<NotificationDTO>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+
+        return Response.<CursorPage<NotificationDTO>>builder()
+                .statusCode(200)
+                .message("Dead-lettered notifications retrieved successfully.")
+                .data(page)
+                .build();
+    }
 
+    @Override
+    @Transactional
+    public Response<Integer> requeueDeadLetters(List<Long> ids) {
+
+        // no ids means every dead letter; the relay's batch size still paces the resend
+        int requeued = (ids == null || ids.isEmpty())
+                ? notificationOutboxRepo.requeueAllDead()
+                : notificationOutboxRepo.requeueDead(ids);
+
+        log.info("Requeued {} dead-lettered notifications", requeued);
+
+        return Response.<Integer>builder()
+                .statusCode(200)
+                .message("Requeued " + requeued + " notifications.")
+                .data(requeued)
+                .build();
+    }
+
+    @Override
+    public Response<NotificationMetricsDTO> getDeliveryMetrics() {
+
+        NotificationMetricsDTO metrics = NotificationMetricsDTO.builder()
+                .threadMode(notificationExecutor.isVirtualThreads() ? "virtual" : "platform")
+                .overflowPolicy(notificationExecutor.getOverflowPolicy().name())
+                .activeThreads(notificationExecutor.getActiveThreads())
+                .queueDepth(notificationExecutor.getQueueDepth())
+                .completedTasks(notificationExecutor.getCompletedTasks())
+                .failedTasks(notificationExecutor.getFailedTasks())
+                .averageQueueMillis(notificationExecutor.getAverageQueueMillis())
+                .averageRunMillis(notificationExecutor.getAverageRunMillis())
+                .callerRunsCount(notificationExecutor.getCallerRunsCount())
+                .spilledCount(notificationExecutor.getSpilledCount())
+                .droppedCount(notificationExecutor.getDroppedCount())
+                .smtpConnectionsOpened(smtpTransportPool.getConnectionsOpened())
+                .smtpMessagesSent(smtpTransportPool.getMessagesSent())
+                .smtpMessagesFailed(smtpTransportPool.getMessagesFailed())
+                .logBuffered(notificationLogWriter.getBufferedCount())
+                .logOldestBufferedMillis(notificationLogWriter.getOldestBufferedMillis())
+                .logFlushedRows(notificationLogWriter.getFlushedRows())
+                .logDroppedRows(notificationLogWriter.getDroppedRows())
+                .pendingInOutbox(notificationOutboxRepo.countByStatus(NotificationStatus.PENDING))
+                .failedInOutbox(notificationOutboxRepo.countByStatus(NotificationStatus.FAILED))
+                .deadInOutbox(notificationOutboxRepo.countByStatus(NotificationStatus.DEAD))
+                .build();
+
+        return Response.<NotificationMetricsDTO>builder()
+                .statusCode(200)
+                .message("Notification metrics retrieved successfully.")
+                .data(metrics)
+                .build();
+    }
+
+    private MimeMessage buildMessage(NotificationDTO notificationDTO) throws MessagingException {
+
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+
+        MimeMessageHelper helper = new MimeMessageHelper(
+                mimeMessage,
+                MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
+                StandardCharsets.UTF_8.name()
+        );
 
-            mailSender.send(mimeMessage);
-            log.info("Email sent out");
+        helper.setTo(notificationDTO.getRecipient());
+        helper.setSubject(notificationDTO.getSubject());
 
 
-            //save to our database table
-            Notification notificationToSave = Notification.builder()
-                    .recipient(notificationDTO.getRecipient())
-                    .subject(notificationDTO.getSubject())
-                    .message(notificationDTO.getMessage())
-                    .type(NotificationType.EMAIL)
-                    .user(user)
-                    .build();
+        // Use template if provided
+        if (notificationDTO.getTemplateName() != null){
 
-            notificationRepo.save(notificationToSave);
+            String htmlContent = emailTemplateRenderer.render(notificationDTO.getTemplateName(), notificationDTO.getTemplateVariables());
 
-        }catch (Exception e){
-            log.info(e.getMessage());
+            helper.setText(htmlContent, true);
+
+        }else{
+            helper.setText(notificationDTO.getMessage(), true);
         }
 
+        return mimeMessage;
+    }
+
+    private Notification toLogEntry(OutgoingEmail email, NotificationStatus status) {
+        return Notification.builder()
+                .recipient(email.notification().getRecipient())
+                .subject(email.notification().getSubject())
+                .message(email.notification().getMessage())
+                .type(NotificationType.EMAIL)
+                .status(status)
+                .user(email.user())
+                .build();
     }
 }
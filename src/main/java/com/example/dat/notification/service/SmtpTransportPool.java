@@ -0,0 +1,203 @@
+package com.example.dat.notification.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A few long-lived SMTP connections shared by the notification senders. JavaMailSender.send opens a new
+ * connection, runs STARTTLS and authenticates for every call; here a batch of messages goes out over one
+ * borrowed connection, which is reconnected only when the server drops it, after
+ * max-messages-per-connection messages, or after sitting idle for max-idle.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    private final JavaMailSender mailSender;
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final int maxMessagesPerConnection;
+    private final Duration maxIdle;
+    private final Duration borrowTimeout;
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesFailed = new LongAdder();
+
+    public SmtpTransportPool(JavaMailSender mailSender,
+                             @Value("${notifications.smtp.pool-size:4}") int poolSize,
+                             @Value("${notifications.smtp.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                             @Value("${notifications.smtp.max-idle:30s}") Duration maxIdle,
+                             @Value("${notifications.smtp.borrow-timeout:30s}") Duration borrowTimeout) {
+        this.mailSender = mailSender;
+        this.permits = new Semaphore(poolSize);
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdle = maxIdle;
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Sends the messages in order over one pooled connection. The result has one entry per message:
+     * null when it was accepted, otherwise the failure. A failed message does not stop the batch.
+     */
+    public List<Exception> sendBatch(List<MimeMessage> messages) {
+        List<Exception> results = new ArrayList<>(messages.size());
+
+        // without a JavaMailSenderImpl there is no session to pool, fall back to one send per message
+        if (!(mailSender instanceof JavaMailSenderImpl senderImpl)) {
+            for (MimeMessage message : messages) {
+                results.add(sendUnpooled(message));
+            }
+            return results;
+        }
+
+        PooledTransport pooled = borrow();
+        try {
+            for (MimeMessage message : messages) {
+                results.add(send(senderImpl, pooled, message));
+            }
+        } finally {
+            release(pooled);
+        }
+        return results;
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    public long getMessagesFailed() {
+        return messagesFailed.sum();
+    }
+
+    //mail servers drop idle sessions on their own, close ours first so the next batch does not trip over a dead one
+    @Scheduled(fixedDelayString = "${notifications.smtp.idle-check-interval:15s}")
+    public void closeIdle() {
+        long cutoff = System.nanoTime() - maxIdle.toNanos();
+        for (PooledTransport pooled : idle) {
+            if (pooled.lastUsed - cutoff < 0 && idle.remove(pooled)) {
+                pooled.close();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.close();
+        }
+    }
+
+    private Exception send(JavaMailSenderImpl senderImpl, PooledTransport pooled, MimeMessage message) {
+        Exception failure = null;
+
+        // a pooled connection may have been dropped by the server since its last use, so retry once on a fresh one
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                if (pooled.transport == null || pooled.sentOnConnection >= maxMessagesPerConnection) {
+                    pooled.close();
+                    connect(senderImpl, pooled);
+                }
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+                pooled.transport.sendMessage(message, message.getAllRecipients());
+                pooled.sentOnConnection++;
+                messagesSent.increment();
+                return null;
+            } catch (MessagingException | RuntimeException e) {
+                failure = e;
+                // a rejected recipient leaves the session usable and is not retried, a dropped connection is
+                if (pooled.transport != null && pooled.transport.isConnected()) {
+                    break;
+                }
+                pooled.close();
+            }
+        }
+        messagesFailed.increment();
+        return failure;
+    }
+
+    private void connect(JavaMailSenderImpl senderImpl, PooledTransport pooled) throws MessagingException {
+        Transport transport = senderImpl.getSession().getTransport(senderImpl.getProtocol());
+        transport.connect(senderImpl.getHost(), senderImpl.getPort(), senderImpl.getUsername(), senderImpl.getPassword());
+        pooled.transport = transport;
+        pooled.sentOnConnection = 0;
+        connectionsOpened.increment();
+    }
+
+    private Exception sendUnpooled(MimeMessage message) {
+        try {
+            mailSender.send(message);
+            messagesSent.increment();
+            return null;
+        } catch (RuntimeException e) {
+            messagesFailed.increment();
+            return e;
+        }
+    }
+
+    private PooledTransport borrow() {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP connection available within " + borrowTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection");
+        }
+        PooledTransport pooled = idle.pollFirst();
+        return pooled != null ? pooled : new PooledTransport();
+    }
+
+    private void release(PooledTransport pooled) {
+        pooled.lastUsed = System.nanoTime();
+        idle.offerFirst(pooled);
+        permits.release();
+    }
+
+
+    private static class PooledTransport {
+
+        private Transport transport;
+        private int sentOnConnection;
+        private volatile long lastUsed = System.nanoTime();
+
+        void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+}
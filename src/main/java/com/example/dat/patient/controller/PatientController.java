@@ -1,9 +1,8 @@
 package com.example.dat.patient.controller;
 
-import com.example.dat.enums.BloodGroup;
-import com.example.dat.enums.Genotype;
 import com.example.dat.patient.dto.PatientDTO;
 import com.example.dat.patient.service.PatientService;
+import com.example.dat.res.ConditionalResponses;
 import com.example.dat.res.Response;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +17,7 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final ConditionalResponses conditionalResponses;
 
     @GetMapping("/me")
     @PreAuthorize("hasAuthority('PATIENT')")
@@ -39,13 +39,13 @@ public class PatientController {
 
 
     @GetMapping("/bloodgroup")
-    public ResponseEntity<Response<List<BloodGroup>>> getAllBloodGroupEnums() {
-        return ResponseEntity.ok(patientService.getAllBloodGroupEnums());
+    public ResponseEntity<byte[]> getAllBloodGroupEnums() {
+        return conditionalResponses.reference("bloodgroup", patientService::getAllBloodGroupEnums);
     }
 
     @GetMapping("/genotype")
-    public ResponseEntity<Response<List<Genotype>>> getAllGenotypeEnums() {
-        return ResponseEntity.ok(patientService.getAllGenotypeEnums());
+    public ResponseEntity<byte[]> getAllGenotypeEnums() {
+        return conditionalResponses.reference("genotype", patientService::getAllGenotypeEnums);
     }
 
 
@@ -2,11 +2,22 @@ package com.example.dat.patient.repo;
 
 import com.example.dat.patient.entity.Patient;
 import com.example.dat.users.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface PatientRepo extends JpaRepository<Patient, Long> {
 
     Optional<Patient> findByUser(User user);
+
+    //load the patient profile together with its user in one query
+    @Query("SELECT p FROM Patient p JOIN FETCH p.user u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    Optional<Patient> findByUserEmailWithUser(@Param("email") String email);
+
+    //profile fetch plan: patient + user + roles in one select, as PatientDTO maps the nested user
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<Patient> findWithUserById(Long id);
 }
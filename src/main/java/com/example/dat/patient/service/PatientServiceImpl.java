@@ -7,8 +7,7 @@ import com.example.dat.patient.dto.PatientDTO;
 import com.example.dat.patient.entity.Patient;
 import com.example.dat.patient.repo.PatientRepo;
 import com.example.dat.res.Response;
-import com.example.dat.users.entity.User;
-import com.example.dat.users.service.UserService;
+import com.example.dat.users.service.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -26,16 +25,14 @@ import java.util.Optional;
 public class PatientServiceImpl implements PatientService{
 
     private final PatientRepo patientRepo;
-    private final UserService userService;
+    private final CurrentUserResolver currentUserResolver;
     private final ModelMapper modelMapper;
 
 
     @Override
     public Response<PatientDTO> getPatientProfile() {
 
-        User user = userService.getCurrentUser();
-
-        Patient patient = patientRepo.findByUser(user)
+        Patient patient = currentUserResolver.findCurrentPatient()
                 .orElseThrow(()-> new NotFoundException("Patient Not Found"));
 
         return Response.<PatientDTO>builder()
@@ -49,9 +46,7 @@ public class PatientServiceImpl implements PatientService{
     public Response<?> updatePatientProfile(PatientDTO patientDTO) {
 
 
-        User currentUser = userService.getCurrentUser();
-
-        Patient patient = patientRepo.findByUser(currentUser)
+        Patient patient = currentUserResolver.findCurrentPatient()
                 .orElseThrow(() -> new NotFoundException("Patient profile not found."));
 
 
@@ -91,7 +86,7 @@ public class PatientServiceImpl implements PatientService{
     @Override
     public Response<PatientDTO> getPatientById(Long patientId) {
 
-        Patient patient = patientRepo.findById(patientId)
+        Patient patient = patientRepo.findWithUserById(patientId)
                 .orElseThrow(() -> new NotFoundException("Patient not found with ID: " + patientId));
 
         PatientDTO patientDTO = modelMapper.map(patient, PatientDTO.class);
@@ -0,0 +1,91 @@
+package com.example.dat.res;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Builds GET responses that carry a strong ETag (a SHA-256 of the JSON body) and a Cache-Control policy.
+ * The body is handed to Spring as ready-made bytes; when If-None-Match matches the ETag, Spring answers
+ * 304 and never writes them. Reference data is serialized once and the same bytes are served from then on.
+ */
+@Component
+public class ConditionalResponses {
+
+    private final ObjectMapper objectMapper;
+    private final CacheControl referenceCaching;
+    private final CacheControl publicCaching;
+
+    //per-user data: cacheable by the browser only, revalidated on every use
+    private final CacheControl privateCaching = CacheControl.noCache().cachePrivate();
+
+    private final Map<String, Serialized> references = new ConcurrentHashMap<>();
+
+    public ConditionalResponses(ObjectMapper objectMapper,
+                                @Value("${http.cache.reference-max-age:1d}") Duration referenceMaxAge,
+                                @Value("${http.cache.public-max-age:60s}") Duration publicMaxAge) {
+        this.objectMapper = objectMapper;
+        this.referenceCaching = CacheControl.maxAge(referenceMaxAge).cachePublic();
+        this.publicCaching = CacheControl.maxAge(publicMaxAge).cachePublic();
+    }
+
+
+    //data that only changes with a deploy (enum lists); built on first request, immutable afterwards
+    public ResponseEntity<byte[]> reference(String name, Supplier<?> body) {
+        Serialized serialized = references.computeIfAbsent(name, key -> serialize(body.get()));
+        return ok(serialized, referenceCaching).body(serialized.bytes());
+    }
+
+    //anonymous data that may change at any time, e.g. the doctor directory
+    public ResponseEntity<byte[]> shared(Object body) {
+        Serialized serialized = serialize(body);
+        return ok(serialized, publicCaching).body(serialized.bytes());
+    }
+
+    //data for the authenticated caller; Vary keeps shared caches from mixing users up
+    public ResponseEntity<byte[]> personal(Object body) {
+        Serialized serialized = serialize(body);
+        return ok(serialized, privateCaching)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(serialized.bytes());
+    }
+
+    private ResponseEntity.BodyBuilder ok(Serialized serialized, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(serialized.etag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    private Serialized serialize(Object body) {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        return new Serialized(bytes, etagOf(bytes));
+    }
+
+    static String etagOf(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            //128 bits of the digest is plenty to tell versions of one resource apart
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Serialized(byte[] bytes, String etag) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.dat.res;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private List<T> items;
+
+    //pass back as the cursor to fetch the next page; null when there are no more items
+    private Long nextCursor;
+
+    private boolean hasMore;
+}
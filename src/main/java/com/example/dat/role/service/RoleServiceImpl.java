@@ -4,7 +4,9 @@ import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.res.Response;
 import com.example.dat.role.entity.Role;
 import com.example.dat.role.repo.RoleRepo;
+import com.example.dat.security.PrincipalChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +17,7 @@ import java.util.List;
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepo roleRepo;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @Override
@@ -38,6 +41,7 @@ public class RoleServiceImpl implements RoleService {
         role.setName(roleRequest.getName());
 
         Role updatedRole = roleRepo.save(role);
+        eventPublisher.publishEvent(PrincipalChangedEvent.allUsers());
         return Response.<Role>builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Role updated successfully")
@@ -64,6 +68,7 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepo.deleteById(id);
+        eventPublisher.publishEvent(PrincipalChangedEvent.allUsers());
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
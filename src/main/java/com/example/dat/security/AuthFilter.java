@@ -2,12 +2,15 @@ package com.example.dat.security;
 
 
 import com.example.dat.exceptions.CustomAuthenticationEntryPoint;
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.entity.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
@@ -19,6 +22,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @Slf4j
@@ -27,9 +31,13 @@ public class AuthFilter  extends OncePerRequestFilter {
 
 
     private final JwtService tokenService;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
     private final CustomUserDetailsService customUserDetailsService;
 
+    @Value("${auth.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -41,27 +49,38 @@ public class AuthFilter  extends OncePerRequestFilter {
         String token = getTokenFromRequest(request);
 
         if(token != null){
-            String email;
+            VerifiedToken verifiedToken;
             try {
-                email = tokenService.getUsernameFromToken(token);
+                verifiedToken = verifiedTokenCache.verify(token);
             }catch (Exception e){
-                log.error("Exception occured while extracting username from token");
+                log.error("Exception occured while verifying token");
                 AuthenticationException authenticationException = new BadCredentialsException(e.getMessage());
                 customAuthenticationEntryPoint.commence(request, response, authenticationException);
                 return;
             }
 
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
+            String email = verifiedToken.subject();
+
+            if (StringUtils.hasText(email) && !verifiedToken.isExpired()) {
+
+                UserDetails userDetails = statelessEnabled
+                        ? buildPrincipalFromClaims(verifiedToken)
+                        : null;
 
-            if (StringUtils.hasText(email) && tokenService.isTokenValid(token, userDetails)) {
+                if (userDetails == null) {
+                    userDetails = customUserDetailsService.loadUserByUsername(email);
+                }
 
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
+                if (tokenService.isTokenValid(verifiedToken, userDetails)) {
 
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                    UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities());
+
+                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                }
             }
         }
 
@@ -75,6 +94,37 @@ public class AuthFilter  extends OncePerRequestFilter {
 
     }
 
+    /**
+     * Rebuilds the principal from the id and role claims embedded by {@link JwtService#generateToken(User)}.
+     * Returns null for tokens issued without those claims, and for tokens issued before the user's roles or
+     * password last changed, so the caller falls back to the database lookup and gets the current roles.
+     * Changes are only seen by the instance that made them; elsewhere the claims hold until the token expires.
+     */
+    private AuthUser buildPrincipalFromClaims(VerifiedToken verifiedToken) {
+        Number userId = verifiedToken.claim(JwtService.USER_ID_CLAIM, Number.class);
+        List<?> roleNames = verifiedToken.claim(JwtService.ROLES_CLAIM, List.class);
+
+        if (userId == null || roleNames == null
+                || customUserDetailsService.isStale(verifiedToken.subject(), verifiedToken.issuedAt())) {
+            return null;
+        }
+
+        List<Role> roles = roleNames.stream()
+                .map(name -> Role.builder().name(String.valueOf(name)).build())
+                .toList();
+
+        User user = User.builder()
+                .id(userId.longValue())
+                .email(verifiedToken.subject())
+                .roles(roles)
+                .build();
+
+        return AuthUser.builder()
+                .user(user)
+                .partial(true)
+                .build();
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String tokenWithBearer = request.getHeader("Authorization");
         if (tokenWithBearer != null && tokenWithBearer.startsWith("Bearer ")) {
@@ -0,0 +1,76 @@
+package com.example.dat.security;
+
+import com.example.dat.exceptions.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the unauthenticated auth endpoints per account and per client IP before any hashing,
+ * database or mail work is done. The client IP is the request's remote address as resolved from
+ * X-Forwarded-For by server.forward-headers-strategy=native, trusted only from the configured proxies.
+ * The account bucket still applies when one address carries many clients, e.g. a NAT.
+ */
+@Component
+@Slf4j
+public class AuthRateLimiter {
+
+    private final TokenBucketRateLimiter loginByEmail;
+    private final TokenBucketRateLimiter loginByIp;
+    private final TokenBucketRateLimiter forgotPasswordByEmail;
+    private final TokenBucketRateLimiter forgotPasswordByIp;
+
+    public AuthRateLimiter(@Value("${rate-limit.login.email.capacity:5}") long loginEmailCapacity,
+                           @Value("${rate-limit.login.email.refill-period:1m}") Duration loginEmailRefill,
+                           @Value("${rate-limit.login.ip.capacity:20}") long loginIpCapacity,
+                           @Value("${rate-limit.login.ip.refill-period:1m}") Duration loginIpRefill,
+                           @Value("${rate-limit.forgot-password.email.capacity:3}") long forgotEmailCapacity,
+                           @Value("${rate-limit.forgot-password.email.refill-period:15m}") Duration forgotEmailRefill,
+                           @Value("${rate-limit.forgot-password.ip.capacity:10}") long forgotIpCapacity,
+                           @Value("${rate-limit.forgot-password.ip.refill-period:15m}") Duration forgotIpRefill,
+                           @Value("${rate-limit.idle-timeout:30m}") Duration idleTimeout) {
+        this.loginByEmail = new TokenBucketRateLimiter(loginEmailCapacity, loginEmailRefill, idleTimeout);
+        this.loginByIp = new TokenBucketRateLimiter(loginIpCapacity, loginIpRefill, idleTimeout);
+        this.forgotPasswordByEmail = new TokenBucketRateLimiter(forgotEmailCapacity, forgotEmailRefill, idleTimeout);
+        this.forgotPasswordByIp = new TokenBucketRateLimiter(forgotIpCapacity, forgotIpRefill, idleTimeout);
+    }
+
+    public void checkLogin(String email, String clientIp) {
+        check(loginByIp, clientIp, "Too many login attempts, please try again later");
+        check(loginByEmail, normalize(email), "Too many login attempts, please try again later");
+    }
+
+    public void checkForgotPassword(String email, String clientIp) {
+        check(forgotPasswordByIp, clientIp, "Too many password reset requests, please try again later");
+        check(forgotPasswordByEmail, normalize(email), "Too many password reset requests, please try again later");
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:5m}")
+    public void evictIdleBuckets() {
+        int evicted = loginByEmail.evictIdle() + loginByIp.evictIdle()
+                + forgotPasswordByEmail.evictIdle() + forgotPasswordByIp.evictIdle();
+        if (evicted > 0) {
+            log.info("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private void check(TokenBucketRateLimiter limiter, String key, String message) {
+        if (key == null) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            throw new TooManyRequestsException(message, retryAfterSeconds);
+        }
+    }
+
+    private String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -16,6 +16,10 @@ public class AuthUser implements UserDetails {
 
     private User user;
 
+    // true when the user only carries id, email, password and roles (rebuilt from token claims or the
+    // principal cache) instead of being the full entity loaded from the database
+    private boolean partial;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return user.getRoles()
@@ -1,28 +1,143 @@
 package com.example.dat.security;
 
+import com.example.dat.cache.BoundedTtlCache;
 import com.example.dat.exceptions.NotFoundException;
+import com.example.dat.role.entity.Role;
 import com.example.dat.users.entity.User;
 import com.example.dat.users.repo.UserRepo;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepo userRepo;
 
+    private final boolean cacheEnabled;
+
+    private final BoundedTtlCache<String, CachedPrincipal> principals;
+
+    // bumped on every invalidation so a load that raced with a change is never cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // when each user's principal last changed, kept for one token lifetime; older tokens are expired anyway
+    private final Map<String, Instant> changedAt = new ConcurrentHashMap<>();
+    private volatile Instant allChangedAt = Instant.EPOCH;
+    private final Duration tokenLifetime;
+
+    public CustomUserDetailsService(UserRepo userRepo,
+                                    @Value("${auth.principal-cache.enabled:false}") boolean cacheEnabled,
+                                    @Value("${auth.principal-cache.ttl:5m}") Duration ttl,
+                                    @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+                                    @Value("${jwt.expiration.time:86400000}") long tokenLifetimeMillis) {
+        this.userRepo = userRepo;
+        this.cacheEnabled = cacheEnabled;
+        this.principals = new BoundedTtlCache<>(maxSize, ttl);
+        this.tokenLifetime = Duration.ofMillis(tokenLifetimeMillis);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = userRepo.findByEmail(username)
-                .orElseThrow(()-> new NotFoundException("Email Not Found"));
+        if (!cacheEnabled) {
+            return AuthUser.builder()
+                    .user(loadUser(username))
+                    .build();
+        }
+
+        CachedPrincipal cached = principals.get(username);
+        if (cached != null) {
+            return cached.toAuthUser();
+        }
+
+        long generationBeforeLoad = generation.get();
+        User user = loadUser(username);
+        CachedPrincipal principal = CachedPrincipal.of(user);
+
+        if (generation.get() == generationBeforeLoad) {
+            principals.put(username, principal);
+        }
 
         return AuthUser.builder()
                 .user(user)
                 .build();
     }
+
+    //after commit: evicting earlier would let a concurrent load re-cache the old row under the new generation
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        generation.incrementAndGet();
+        Instant now = Instant.now();
+        changedAt.values().removeIf(changed -> changed.isBefore(now.minus(tokenLifetime)));
+
+        if (event.affectsAllUsers()) {
+            allChangedAt = now;
+            principals.clear();
+            log.info("Principal cache cleared");
+        } else {
+            changedAt.put(event.email(), now);
+            principals.remove(event.email());
+            log.info("Principal cache entry evicted for {}", event.email());
+        }
+    }
+
+    /**
+     * Whether a token issued at issuedAt predates a change to the user's principal seen by this instance,
+     * so the roles embedded in it can no longer be trusted. iat has second precision, so a token issued
+     * in the same second as the change also counts as stale; that only costs it a database lookup.
+     */
+    public boolean isStale(String email, Instant issuedAt) {
+        if (issuedAt == null || !issuedAt.isAfter(allChangedAt)) {
+            return true;
+        }
+        Instant changed = changedAt.get(email);
+        return changed != null && !issuedAt.isAfter(changed);
+    }
+
+    private User loadUser(String username) {
+        return userRepo.findByEmail(username)
+                .orElseThrow(()-> new NotFoundException("Email Not Found"));
+    }
+
+    /**
+     * Immutable snapshot of what authentication needs from a user; never the managed entity itself.
+     */
+    private record CachedPrincipal(Long id, String email, String passwordHash, List<String> roleNames) {
+
+        static CachedPrincipal of(User user) {
+            return new CachedPrincipal(
+                    user.getId(),
+                    user.getEmail(),
+                    user.getPassword(),
+                    user.getRoles().stream().map(Role::getName).toList());
+        }
+
+        AuthUser toAuthUser() {
+            User user = User.builder()
+                    .id(id)
+                    .email(email)
+                    .password(passwordHash)
+                    .roles(roleNames.stream().map(name -> Role.builder().name(name).build()).toList())
+                    .build();
+
+            return AuthUser.builder()
+                    .user(user)
+                    .partial(true)
+                    .build();
+        }
+    }
 }
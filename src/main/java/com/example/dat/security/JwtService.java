@@ -1,6 +1,9 @@
 package com.example.dat.security;
 
+import com.example.dat.role.entity.Role;
+import com.example.dat.users.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,8 +13,11 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class JwtService {
@@ -22,12 +28,22 @@ public class JwtService {
     @Value("${jwt.expiration.time}")
     private long EXPIRATION_TIME;
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+
+    // registered claims already exposed as fields on VerifiedToken
+    private static final Set<String> REGISTERED_CLAIMS = Set.of("sub", "iat", "exp");
+
     private SecretKey key;
 
+    // JwtParser is immutable and thread-safe, so one instance is shared by every request
+    private JwtParser jwtParser;
+
     @PostConstruct
     private void init() {
         byte[] keyByte = JWT_SECRETE.getBytes(StandardCharsets.UTF_8);
         this.key = new SecretKeySpec(keyByte, "HmacSHA256");
+        this.jwtParser = Jwts.parser().verifyWith(key).build();
     }
 
 
@@ -40,24 +56,56 @@ public class JwtService {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return extractClaims(token, Claims::getSubject);
+    /**
+     * Same as {@link #generateToken(String)} but also embeds the user id and role names,
+     * so the stateless auth mode can build the principal without a database lookup.
+     */
+    public String generateToken(User user) {
+        return Jwts.builder()
+                .subject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, user.getRoles().stream().map(Role::getName).toList())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Parses and verifies the token signature once and returns everything the caller needs from it.
+     * Throws a {@link io.jsonwebtoken.JwtException} if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+
+        Map<String, Object> customClaims = new HashMap<>();
+        claims.forEach((name, value) -> {
+            if (!REGISTERED_CLAIMS.contains(name)) {
+                customClaims.put(name, value);
+            }
+        });
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                customClaims);
     }
 
-    private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction) {
-        return claimsTFunction.apply(Jwts.parser().verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload());
+    public String getUsernameFromToken(String token) {
+        return verify(token).subject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    public boolean isTokenValid(VerifiedToken verifiedToken, UserDetails userDetails) {
+        return verifiedToken.subject().equals(userDetails.getUsername()) && !verifiedToken.isExpired();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    private Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 
 
@@ -0,0 +1,20 @@
+package com.example.dat.security;
+
+/**
+ * Published whenever data backing a cached principal changes (password, roles).
+ * A null email means the change can affect any user, e.g. a role was renamed or deleted.
+ */
+public record PrincipalChangedEvent(String email) {
+
+    public static PrincipalChangedEvent forUser(String email) {
+        return new PrincipalChangedEvent(email);
+    }
+
+    public static PrincipalChangedEvent allUsers() {
+        return new PrincipalChangedEvent(null);
+    }
+
+    public boolean affectsAllUsers() {
+        return email == null;
+    }
+}
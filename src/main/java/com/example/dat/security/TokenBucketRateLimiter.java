@@ -0,0 +1,79 @@
+package com.example.dat.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets. The map is a ConcurrentHashMap and each bucket is updated with a CAS loop,
+ * so concurrent requests for the same key never take a lock and never over-admit.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+
+    private final Map<String, AtomicReference<BucketState>> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(long capacity, Duration refillPeriod, Duration idleTimeout) {
+        this(capacity, refillPeriod, idleTimeout, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, Duration refillPeriod, Duration idleTimeout, LongSupplier clock) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token from the bucket for the key.
+     * Returns 0 when a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(String key) {
+        AtomicReference<BucketState> bucket = buckets.computeIfAbsent(key,
+                k -> new AtomicReference<>(new BucketState(capacity, clock.getAsLong())));
+
+        while (true) {
+            BucketState current = bucket.get();
+            long now = clock.getAsLong();
+            double tokens = refill(current, now);
+
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (bucket.compareAndSet(current, new BucketState(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have been idle long enough to be full again, they carry no state worth keeping.
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> {
+            BucketState state = entry.getValue().get();
+            return now - state.lastRefillNanos() > idleTimeoutNanos && refill(state, now) >= capacity;
+        });
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private double refill(BucketState state, long now) {
+        long elapsed = Math.max(0, now - state.lastRefillNanos());
+        return Math.min(capacity, state.tokens() + elapsed * tokensPerNano);
+    }
+
+    private record BucketState(double tokens, long lastRefillNanos) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.dat.security;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable view of a JWT whose signature has already been verified by {@link JwtService#verify(String)}.
+ * Everything the filter chain needs is read from here so the token is parsed only once per request.
+ */
+public record VerifiedToken(String subject,
+                            Instant issuedAt,
+                            Instant expiresAt,
+                            Map<String, Object> claims) {
+
+    public VerifiedToken {
+        claims = claims == null ? Map.of() : Map.copyOf(claims);
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+
+    public <T> T claim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+}
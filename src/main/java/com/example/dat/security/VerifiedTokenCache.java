@@ -0,0 +1,103 @@
+package com.example.dat.security;
+
+import com.example.dat.cache.BoundedTtlCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of already verified tokens so repeat requests with the same bearer token skip
+ * signature verification. Entries live until the token's own expiry and are keyed by a SHA-256
+ * digest of the raw token, so the token itself is never held as a map key.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    //MessageDigest is not thread-safe; one per request thread instead of a lookup per request
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtService jwtService;
+    private final boolean enabled;
+
+    private final BoundedTtlCache<String, VerifiedToken> entries;
+
+    public VerifiedTokenCache(JwtService jwtService,
+                              @Value("${jwt.cache.enabled:false}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.jwtService = jwtService;
+        this.enabled = enabled;
+        //no default ttl: each entry expires with its token
+        this.entries = new BoundedTtlCache<>(maxSize, Duration.ZERO);
+    }
+
+    /**
+     * Returns the verified token from the cache, or verifies it through {@link JwtService} and caches
+     * the result. When the cache is disabled this is a plain pass-through to {@link JwtService#verify(String)}.
+     */
+    public VerifiedToken verify(String token) {
+        if (!enabled) {
+            return jwtService.verify(token);
+        }
+
+        String key = digest(token);
+        VerifiedToken cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verifiedToken = jwtService.verify(token);
+
+        //a token without an expiry is verified every time rather than cached forever
+        if (verifiedToken.expiresAt() != null) {
+            entries.put(key, verifiedToken, Duration.between(Instant.now(), verifiedToken.expiresAt()));
+        }
+        return verifiedToken;
+    }
+
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return entries.getHits();
+    }
+
+    public long getMisses() {
+        return entries.getMisses();
+    }
+
+    public long getEvictions() {
+        return entries.getEvictions();
+    }
+
+    private String digest(String token) {
+        MessageDigest messageDigest = SHA_256.get();
+        return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
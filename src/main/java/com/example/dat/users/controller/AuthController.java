@@ -2,11 +2,13 @@ package com.example.dat.users.controller;
 
 
 import com.example.dat.res.Response;
+import com.example.dat.security.AuthRateLimiter;
 import com.example.dat.users.dto.LoginRequest;
 import com.example.dat.users.dto.LoginResponse;
 import com.example.dat.users.dto.RegistrationRequest;
 import com.example.dat.users.dto.ResetPasswordRequest;
 import com.example.dat.users.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter authRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<Response<String >> register(@RequestBody @Valid RegistrationRequest registrationRequest){
@@ -28,12 +31,16 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Response<LoginResponse>> login(@RequestBody @Valid LoginRequest loginRequest){
+    public ResponseEntity<Response<LoginResponse>> login(@RequestBody @Valid LoginRequest loginRequest,
+                                                         HttpServletRequest request){
+        authRateLimiter.checkLogin(loginRequest.getEmail(), request.getRemoteAddr());
         return ResponseEntity.ok(authService.login(loginRequest));
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<Response<?>> forgotPassword(@RequestBody ResetPasswordRequest resetPasswordRequest){
+    public ResponseEntity<Response<?>> forgotPassword(@RequestBody ResetPasswordRequest resetPasswordRequest,
+                                                      HttpServletRequest request){
+        authRateLimiter.checkForgotPassword(resetPasswordRequest.getEmail(), request.getRemoteAddr());
         return ResponseEntity.ok(authService.forgetPassword(resetPasswordRequest.getEmail()));
     }
 
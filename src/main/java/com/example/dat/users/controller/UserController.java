@@ -1,6 +1,8 @@
 package com.example.dat.users.controller;
 
+import com.example.dat.res.ConditionalResponses;
 import com.example.dat.res.Response;
+import com.example.dat.users.dto.SecurityMetricsDTO;
 import com.example.dat.users.dto.UpdatePasswordRequest;
 import com.example.dat.users.dto.UserDTO;
 import com.example.dat.users.service.UserService;
@@ -19,10 +21,11 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ConditionalResponses conditionalResponses;
 
     @GetMapping("/me")
-    public ResponseEntity<Response<UserDTO>> getMyUserDetails(){
-        return ResponseEntity.ok(userService.getMyUserDetails());
+    public ResponseEntity<byte[]> getMyUserDetails(){
+        return conditionalResponses.personal(userService.getMyUserDetails());
     }
 
     @GetMapping("/by-id/{userId}")
@@ -36,6 +39,12 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/security-metrics")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response<SecurityMetricsDTO>> getSecurityMetrics(){
+        return ResponseEntity.ok(userService.getSecurityMetrics());
+    }
+
     @PutMapping("/update-password")
     public ResponseEntity<Response<?>> updatePassword(@RequestBody @Valid UpdatePasswordRequest updatePasswordRequest){
         return ResponseEntity.ok(userService.updatePassword(updatePasswordRequest));
@@ -0,0 +1,33 @@
+package com.example.dat.users.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecurityMetricsDTO {
+
+    // verified token cache; compare request latency with jwt.cache.enabled on and off
+    private Boolean tokenCacheEnabled;
+    private Integer tokenCacheSize;
+    private Long tokenCacheHits;
+    private Long tokenCacheMisses;
+    private Long tokenCacheEvictions;
+
+    // bcrypt pool
+    private Integer hashQueueDepth;
+    private Integer hashActiveThreads;
+    private Long hashCompletedTasks;
+    private Long hashRejectedTasks;
+    private Double hashAverageWaitMillis;
+    private Double hashAverageMillis;
+}
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class PasswordResetCode {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_reset_code_seq")
+    @SequenceGenerator(name = "password_reset_code_seq", sequenceName = "password_reset_code_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true)
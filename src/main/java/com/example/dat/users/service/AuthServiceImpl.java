@@ -3,6 +3,7 @@ package com.example.dat.users.service;
 
 import com.example.dat.doctor.entity.Doctor;
 import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.doctor.service.DoctorChangedEvent;
 import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.notification.dto.NotificationDTO;
@@ -13,6 +14,8 @@ import com.example.dat.res.Response;
 import com.example.dat.role.entity.Role;
 import com.example.dat.role.repo.RoleRepo;
 import com.example.dat.security.JwtService;
+import com.example.dat.security.PasswordHashingService;
+import com.example.dat.security.PrincipalChangedEvent;
 import com.example.dat.users.dto.LoginRequest;
 import com.example.dat.users.dto.LoginResponse;
 import com.example.dat.users.dto.RegistrationRequest;
@@ -24,9 +27,11 @@ import com.example.dat.users.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -41,7 +46,7 @@ public class AuthServiceImpl implements AuthService{
 
     private final UserRepo userRepo;
     private final RoleRepo roleRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final NotificationService notificationService;
 
@@ -50,6 +55,8 @@ public class AuthServiceImpl implements AuthService{
 
     private final PasswordResetRepo passwordResetRepo;
     private final CodeGenerator codeGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
 
 
@@ -90,10 +97,27 @@ public class AuthServiceImpl implements AuthService{
         if (roles.isEmpty()) {
             throw new NotFoundException("Registration failed: Requested roles were not found in the database.");
         }
-        /// 3. Create and save new user entity
+        // BCrypt runs before the transaction so no pooled connection waits on the hash pool
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+
+        /// 3. Create the user, its profiles and the welcome email in one transaction
+        User savedUser = transactionTemplate.execute(status -> createUser(request, roles, passwordHash));
+
+        // 6. Return success response
+        return Response.<String>builder()
+                .statusCode(200)
+                .message("Registration successful. A welcome email has been sent to you.")
+                .data(savedUser.getEmail())
+                .build();
+
+
+    }
+
+    private User createUser(RegistrationRequest request, List<Role> roles, String passwordHash) {
+
         User newUser = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHash)
                 .name(request.getName())
                 .roles(roles)
                 .build();
@@ -133,14 +157,7 @@ public class AuthServiceImpl implements AuthService{
         /// 5. Send welcome email out
         sendRegistrationEmail(request, savedUser);
 
-        // 6. Return success response
-        return Response.<String>builder()
-                .statusCode(200)
-                .message("Registration successful. A welcome email has been sent to you.")
-                .data(savedUser.getEmail())
-                .build();
-
-
+        return savedUser;
     }
 
     @Override
@@ -152,11 +169,19 @@ public class AuthServiceImpl implements AuthService{
 
         User user = userRepo.findByEmail(email).orElseThrow(() -> new NotFoundException("Email Not Found"));
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new BadRequestException("Password doesn't match");
         }
 
-        String token = jwtService.generateToken(user.getEmail());
+        // Rehash with the configured cost factor while we still have the raw password
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(password));
+            userRepo.save(user);
+            eventPublisher.publishEvent(PrincipalChangedEvent.forUser(user.getEmail()));
+            log.info("Password rehashed with new cost factor for {}", user.getEmail());
+        }
+
+        String token = jwtService.generateToken(user);
 
         LoginResponse loginResponse = LoginResponse.builder()
                 .roles(user.getRoles().stream().map(Role::getName).toList())
@@ -172,6 +197,7 @@ public class AuthServiceImpl implements AuthService{
     }
 
     @Override
+    @Transactional
     public Response<?> forgetPassword(String email) {
 
         User user = userRepo.findByEmail(email)
@@ -201,7 +227,7 @@ public class AuthServiceImpl implements AuthService{
                 ))
                 .build();
 
-        notificationService.sendEmail(passwordResetEmail, user);
+        notificationService.queueEmail(passwordResetEmail, user);
 
         return Response.builder()
                 .statusCode(200)
@@ -215,10 +241,6 @@ public class AuthServiceImpl implements AuthService{
         String code = resetPasswordRequest.getCode();
         String newPassword = resetPasswordRequest.getNewPassword();
 
-        log.info("CODE IS: " + code);
-        log.info("NEW PASSWORD IS: " + newPassword);
-
-
         // Find and validate code
         PasswordResetCode resetCode = passwordResetRepo.findByCode(code)
                 .orElseThrow(() -> new BadRequestException("Invalid reset code"));
@@ -229,26 +251,36 @@ public class AuthServiceImpl implements AuthService{
             throw new BadRequestException("Reset code has expired");
         }
 
-        //update the password
-        User user = resetCode.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepo.save(user);
+        // BCrypt runs before the transaction so no pooled connection waits on the hash pool
+        String passwordHash = passwordHashingService.encode(newPassword);
 
-        // Delete the code immediately after successful use
-        passwordResetRepo.delete(resetCode);
+        transactionTemplate.executeWithoutResult(status -> {
+            // re-read inside the transaction so a code used concurrently is only honoured once
+            PasswordResetCode current = passwordResetRepo.findByCode(code)
+                    .orElseThrow(() -> new BadRequestException("Invalid reset code"));
 
+            //update the password
+            User user = current.getUser();
+            user.setPassword(passwordHash);
+            userRepo.save(user);
+            eventPublisher.publishEvent(PrincipalChangedEvent.forUser(user.getEmail()));
 
-        // Send password confirmation email
-        NotificationDTO passwordResetEmail = NotificationDTO.builder()
-                .recipient(user.getEmail())
-                .subject("Password Updated Successfully")
-                .templateName("password-update-confirmation")
-                .templateVariables(Map.of(
-                        "name", user.getName()
-                ))
-                .build();
+            // Delete the code immediately after successful use
+            passwordResetRepo.delete(current);
+
+
+            // Send password confirmation email
+            NotificationDTO passwordResetEmail = NotificationDTO.builder()
+                    .recipient(user.getEmail())
+                    .subject("Password Updated Successfully")
+                    .templateName("password-update-confirmation")
+                    .templateVariables(Map.of(
+                            "name", user.getName()
+                    ))
+                    .build();
 
-        notificationService.sendEmail(passwordResetEmail, user);
+            notificationService.queueEmail(passwordResetEmail, user);
+        });
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -278,6 +310,7 @@ public class AuthServiceImpl implements AuthService{
                 .build();
 
         doctorRepo.save(doctor);
+        eventPublisher.publishEvent(new DoctorChangedEvent(doctor.getId()));
 
         log.info("Doctor profile created");
     }
@@ -294,7 +327,7 @@ public class AuthServiceImpl implements AuthService{
                 ))
                 .build();
 
-        notificationService.sendEmail(welcomeEmail, user);
+        notificationService.queueEmail(welcomeEmail, user);
     }
 
 
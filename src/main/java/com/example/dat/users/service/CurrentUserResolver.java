@@ -0,0 +1,86 @@
+package com.example.dat.users.service;
+
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.exceptions.NotFoundException;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.security.AuthUser;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * Resolves the authenticated user and their Patient/Doctor profile once per request.
+ * Reuses the entity AuthFilter already loaded into {@link AuthUser}, loads a profile together
+ * with its user in a single fetch-join query, and memoizes both for the rest of the request.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserRepo userRepo;
+    private final PatientRepo patientRepo;
+    private final DoctorRepo doctorRepo;
+
+    private User currentUser;
+    private Optional<Patient> currentPatient;
+    private Optional<Doctor> currentDoctor;
+
+
+    public User getCurrentUser() {
+        if (currentUser != null) {
+            return currentUser;
+        }
+
+        Authentication authentication = getAuthentication();
+
+        // AuthFilter already loaded the full entity unless the principal is a partial snapshot
+        if (authentication.getPrincipal() instanceof AuthUser authUser && !authUser.isPartial()) {
+            currentUser = authUser.getUser();
+            return currentUser;
+        }
+
+        currentUser = userRepo.findByEmail(authentication.getName())
+                .orElseThrow(() -> new NotFoundException("User Not Found"));
+        return currentUser;
+    }
+
+    public Optional<Patient> findCurrentPatient() {
+        if (currentPatient == null) {
+            currentPatient = patientRepo.findByUserEmailWithUser(getAuthentication().getName());
+            currentPatient.ifPresent(patient -> rememberUser(patient.getUser()));
+        }
+        return currentPatient;
+    }
+
+    public Optional<Doctor> findCurrentDoctor() {
+        if (currentDoctor == null) {
+            currentDoctor = doctorRepo.findByUserEmailWithUser(getAuthentication().getName());
+            currentDoctor.ifPresent(doctor -> rememberUser(doctor.getUser()));
+        }
+        return currentDoctor;
+    }
+
+    private void rememberUser(User user) {
+        if (currentUser == null) {
+            currentUser = user;
+        }
+    }
+
+    private Authentication getAuthentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            throw new NotFoundException("User is not authenticated");
+        }
+        return authentication;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.dat.users.service;
 
 import com.example.dat.res.Response;
+import com.example.dat.users.dto.SecurityMetricsDTO;
 import com.example.dat.users.dto.UpdatePasswordRequest;
 import com.example.dat.users.dto.UserDTO;
 import com.example.dat.users.entity.User;
@@ -25,4 +26,6 @@ public interface UserService {
 
     Response<?> uploadProfilePictureToS3(MultipartFile file);
 
+    Response<SecurityMetricsDTO> getSecurityMetrics();
+
 }
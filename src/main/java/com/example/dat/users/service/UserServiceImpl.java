@@ -1,10 +1,15 @@
 package com.example.dat.users.service;
 
+import com.example.dat.doctor.service.DoctorChangedEvent;
 import com.example.dat.exceptions.BadRequestException;
 import com.example.dat.exceptions.NotFoundException;
 import com.example.dat.notification.dto.NotificationDTO;
 import com.example.dat.notification.service.NotificationService;
 import com.example.dat.res.Response;
+import com.example.dat.security.PasswordHashingService;
+import com.example.dat.security.PrincipalChangedEvent;
+import com.example.dat.security.VerifiedTokenCache;
+import com.example.dat.users.dto.SecurityMetricsDTO;
 import com.example.dat.users.dto.UpdatePasswordRequest;
 import com.example.dat.users.dto.UserDTO;
 import com.example.dat.users.entity.User;
@@ -12,11 +17,10 @@ import com.example.dat.users.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -34,8 +38,12 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepo userRepo;
     private final ModelMapper modelMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final NotificationService notificationService;
+    private final CurrentUserResolver currentUserResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TransactionTemplate transactionTemplate;
 
 //    private final String uploadDir = "uploads/profile-pictures/"; //backend location for saving images
 
@@ -44,16 +52,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User getCurrentUser() {
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null) {
-            throw new NotFoundException("User is not authenticated");
-        }
-        String email = authentication.getName();
-
-        return userRepo.findByEmail(email).orElseThrow(() -> new NotFoundException("User Not Found"));
-
+        return currentUserResolver.getCurrentUser();
     }
 
     @Override
@@ -114,23 +113,29 @@ public class UserServiceImpl implements UserService {
             throw new BadRequestException("Old and New Password Required");
         }
         // Validate the old password.
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, user.getPassword())) {
             throw new BadRequestException("Old Password not Correct");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepo.save(user);
-
-        // Send password change confirmation email.
-        NotificationDTO notificationDTO = NotificationDTO.builder()
-                .recipient(user.getEmail())
-                .subject("Your Password Was Successfully Changed")
-                .templateName("password-change")
-                .templateVariables(Map.of(
-                        "name", user.getName()
-                ))
-                .build();
-        notificationService.sendEmail(notificationDTO, user);
+        // BCrypt runs before the transaction so no pooled connection waits on the hash pool
+        String passwordHash = passwordHashingService.encode(newPassword);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            user.setPassword(passwordHash);
+            userRepo.save(user);
+            eventPublisher.publishEvent(PrincipalChangedEvent.forUser(user.getEmail()));
+
+            // Send password change confirmation email.
+            NotificationDTO notificationDTO = NotificationDTO.builder()
+                    .recipient(user.getEmail())
+                    .subject("Your Password Was Successfully Changed")
+                    .templateName("password-change")
+                    .templateVariables(Map.of(
+                            "name", user.getName()
+                    ))
+                    .build();
+            notificationService.queueEmail(notificationDTO, user);
+        });
 
         return Response.builder()
                 .statusCode(200)
@@ -176,6 +181,10 @@ public class UserServiceImpl implements UserService {
             user.setProfilePictureUrl(fileUrl);
             userRepo.save(user);
 
+            //doctors show their picture in the directory, refresh the cached entry
+            currentUserResolver.findCurrentDoctor()
+                    .ifPresent(doctor -> eventPublisher.publishEvent(new DoctorChangedEvent(doctor.getId())));
+
             return Response.builder()
                     .statusCode(HttpStatus.OK.value())
                     .message("Profile picture uploaded successfully.")
@@ -191,4 +200,28 @@ public class UserServiceImpl implements UserService {
     public Response<?> uploadProfilePictureToS3(MultipartFile file) {
         return null;
     }
+
+    @Override
+    public Response<SecurityMetricsDTO> getSecurityMetrics() {
+
+        SecurityMetricsDTO metrics = SecurityMetricsDTO.builder()
+                .tokenCacheEnabled(verifiedTokenCache.isEnabled())
+                .tokenCacheSize(verifiedTokenCache.size())
+                .tokenCacheHits(verifiedTokenCache.getHits())
+                .tokenCacheMisses(verifiedTokenCache.getMisses())
+                .tokenCacheEvictions(verifiedTokenCache.getEvictions())
+                .hashQueueDepth(passwordHashingService.getQueueDepth())
+                .hashActiveThreads(passwordHashingService.getActiveThreads())
+                .hashCompletedTasks(passwordHashingService.getCompletedTasks())
+                .hashRejectedTasks(passwordHashingService.getRejectedTasks())
+                .hashAverageWaitMillis(passwordHashingService.getAverageWaitMillis())
+                .hashAverageMillis(passwordHashingService.getAverageHashMillis())
+                .build();
+
+        return Response.<SecurityMetricsDTO>builder()
+                .statusCode(200)
+                .message("Security metrics retrieved successfully.")
+                .data(metrics)
+                .build();
+    }
 }
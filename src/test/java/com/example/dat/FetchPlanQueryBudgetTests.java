@@ -0,0 +1,149 @@
+package com.example.dat;
+
+import com.example.dat.appointment.entity.Appointment;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.consultation.entity.Consultation;
+import com.example.dat.consultation.repo.ConsultationRepo;
+import com.example.dat.consultation.service.ConsultationService;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.doctor.service.DoctorService;
+import com.example.dat.enums.AppointmentStatus;
+import com.example.dat.enums.DoctorSortField;
+import com.example.dat.enums.Specialization;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.patient.service.PatientService;
+import com.example.dat.role.entity.Role;
+import com.example.dat.role.repo.RoleRepo;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import com.example.dat.users.service.CurrentUserResolver;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.example.dat.support.SqlStatementCounter.assertWithinBudget;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the read fetch plans: each service method below declares how many SQL statements it may
+ * issue, so a mapping that silently triggers lazy loads (N+1) fails the build.
+ */
+@SpringBootTest(properties =
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.dat.support.SqlStatementCounter")
+@Transactional
+class FetchPlanQueryBudgetTests {
+
+	@Autowired private DoctorService doctorService;
+	@Autowired private PatientService patientService;
+	@Autowired private ConsultationService consultationService;
+
+	@Autowired private UserRepo userRepo;
+	@Autowired private RoleRepo roleRepo;
+	@Autowired private DoctorRepo doctorRepo;
+	@Autowired private PatientRepo patientRepo;
+	@Autowired private AppointmentRepo appointmentRepo;
+	@Autowired private ConsultationRepo consultationRepo;
+	@Autowired private EntityManager entityManager;
+
+	// consultation reads are limited to the appointment's parties; the tests read as the patient
+	@MockitoBean private CurrentUserResolver currentUserResolver;
+
+	private Doctor doctor;
+	private Patient patient;
+	private Appointment appointment;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 3; i++) {
+			doctor = doctorRepo.save(Doctor.builder()
+					.firstName("Doc" + i)
+					.lastName("Tor" + i)
+					.specialization(Specialization.CARDIOLOGY)
+					.licenseNumber("LIC-" + i)
+					.user(newUser("DOCTOR"))
+					.build());
+		}
+
+		patient = patientRepo.save(Patient.builder()
+				.firstName("Pat")
+				.lastName("Ient")
+				.user(newUser("PATIENT"))
+				.build());
+
+		for (int i = 0; i < 3; i++) {
+			appointment = appointmentRepo.save(Appointment.builder()
+					.startTime(LocalDateTime.now().minusDays(i + 1))
+					.endTime(LocalDateTime.now().minusDays(i + 1).plusMinutes(60))
+					.status(AppointmentStatus.COMPLETED)
+					.doctor(doctor)
+					.patient(patient)
+					.build());
+
+			consultationRepo.save(Consultation.builder()
+					.consultationDate(LocalDateTime.now().minusDays(i + 1))
+					.assessment("Assessment " + i)
+					.appointment(appointment)
+					.build());
+		}
+
+		when(currentUserResolver.getCurrentUser()).thenReturn(patient.getUser());
+		when(currentUserResolver.findCurrentPatient()).thenReturn(Optional.of(patient));
+
+		// start every measured call from an empty persistence context so cached entities hide nothing
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void doctorDirectoryReadsStayWithinBudget() {
+		assertWithinBudget("DoctorService.getAllDoctors", 1, doctorService::getAllDoctors);
+		entityManager.clear();
+		assertWithinBudget("DoctorService.searchDoctors", 1,
+				() -> doctorService.searchDoctors(null, 2, List.of(Specialization.CARDIOLOGY), "Tor", DoctorSortField.LAST_NAME));
+		entityManager.clear();
+		assertWithinBudget("DoctorService.searchDoctors (cursor)", 2,
+				() -> doctorService.searchDoctors(doctor.getId(), 2, null, null, DoctorSortField.LAST_NAME));
+		entityManager.clear();
+		assertWithinBudget("DoctorService.getDoctorById", 1, () -> doctorService.getDoctorById(doctor.getId()));
+		entityManager.clear();
+		assertWithinBudget("DoctorService.searchDoctorsBySpecialization", 1,
+				() -> doctorService.searchDoctorsBySpecialization(Specialization.CARDIOLOGY));
+	}
+
+	@Test
+	void patientProfileReadStaysWithinBudget() {
+		assertWithinBudget("PatientService.getPatientById", 1, () -> patientService.getPatientById(patient.getId()));
+	}
+
+	@Test
+	void consultationReadsStayWithinBudget() {
+		assertWithinBudget("ConsultationService.getConsultationByAppointmentId", 1,
+				() -> consultationService.getConsultationByAppointmentId(appointment.getId()));
+		entityManager.clear();
+		assertWithinBudget("ConsultationService.getConsultationHistoryForPatient", 2,
+				() -> consultationService.getConsultationHistoryForPatient(patient.getId(), null, 2));
+	}
+
+	private User newUser(String roleName) {
+		Role role = roleRepo.findByName(roleName)
+				.orElseGet(() -> roleRepo.save(Role.builder().name(roleName).build()));
+
+		return userRepo.save(User.builder()
+				.name(roleName.toLowerCase() + " user")
+				.email(UUID.randomUUID() + "@budget.test")
+				.password("x")
+				.roles(List.of(role))
+				.build());
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.dat;
+
+import com.example.dat.enums.NotificationType;
+import com.example.dat.notification.entity.Notification;
+import com.example.dat.notification.repo.NotificationRepo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput for the notifications log, IDENTITY before against pooled sequence ids after.
+ * "Identity" inserts into a scratch copy of the table whose id is AUTO_INCREMENT, one statement per row
+ * reading back the generated key, which is what Hibernate has to do for IDENTITY ids. "Pooled" saves
+ * the real entity and relies on pooled ids and hibernate.jdbc.batch_size.
+ * Run with -Dbenchmarks=true against the configured database.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class NotificationInsertBenchmark {
+
+	private static final int ROWS = 5_000;
+
+	@Autowired private NotificationRepo notificationRepo;
+	@Autowired private EntityManager entityManager;
+	@Autowired private TransactionTemplate transactionTemplate;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void compareIdentityAndPooledInserts() {
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notifications_identity_bench (" +
+				"id BIGINT AUTO_INCREMENT PRIMARY KEY, subject VARCHAR(255), recipient VARCHAR(255), " +
+				"message VARCHAR(255), type VARCHAR(20), created_at DATETIME(6))");
+		try {
+			long identity = time(() -> transactionTemplate.executeWithoutResult(status -> {
+				for (int i = 0; i < ROWS; i++) {
+					Notification notification = notification(i);
+					KeyHolder keyHolder = new GeneratedKeyHolder();
+					jdbcTemplate.update(connection -> {
+						PreparedStatement insert = connection.prepareStatement(
+								"INSERT INTO notifications_identity_bench (subject, recipient, message, type, created_at) " +
+										"VALUES (?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+						insert.setString(1, notification.getSubject());
+						insert.setString(2, notification.getRecipient());
+						insert.setString(3, notification.getMessage());
+						insert.setString(4, notification.getType().name());
+						insert.setTimestamp(5, Timestamp.valueOf(notification.getCreatedAt()));
+						return insert;
+					}, keyHolder);
+				}
+				status.setRollbackOnly();
+			}));
+
+			long pooled = time(() -> transactionTemplate.executeWithoutResult(status -> {
+				List<Notification> notifications = new ArrayList<>(ROWS);
+				for (int i = 0; i < ROWS; i++) {
+					notifications.add(notification(i));
+				}
+				notificationRepo.saveAll(notifications);
+				entityManager.flush();
+				status.setRollbackOnly();
+			}));
+
+			System.out.printf("IDENTITY: %d rows in %d ms (%.0f rows/s)%n", ROWS, identity, ROWS * 1000.0 / identity);
+			System.out.printf("Pooled:   %d rows in %d ms (%.0f rows/s)%n", ROWS, pooled, ROWS * 1000.0 / pooled);
+		} finally {
+			jdbcTemplate.execute("DROP TABLE IF EXISTS notifications_identity_bench");
+		}
+	}
+
+	private Notification notification(int i) {
+		return Notification.builder()
+				.recipient("bench" + i + "@example.com")
+				.subject("Benchmark")
+				.message("Benchmark message " + i)
+				.type(NotificationType.EMAIL)
+				.build();
+	}
+
+	private long time(Runnable run) {
+		long start = System.nanoTime();
+		run.run();
+		return Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+}
@@ -0,0 +1,133 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.notification.service.NotificationService;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.role.repo.RoleRepo;
+import com.example.dat.support.BookingParties;
+import com.example.dat.support.BookingTestDatabase;
+import com.example.dat.users.repo.UserRepo;
+import com.example.dat.users.service.CurrentUserResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Booking throughput of the locked path: every request asks for a free slot, so none is turned away by
+ * the schedule index and each one takes DoctorBookingLocks, the doctor row lock, the conflict query and
+ * the insert. "One doctor" serializes every booking on one lock; "spread" shows how far bookings for
+ * different doctors run in parallel. Writes go to the scratch schema of {@link BookingTestDatabase}.
+ * Run with -Dbenchmarks=true against the configured database server.
+ */
+@SpringBootTest(properties = {BookingTestDatabase.URL, BookingTestDatabase.SCHEMA, BookingTestDatabase.LOCK_TIMEOUT})
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AppointmentBookingBenchmark {
+
+	private static final int THREADS = 32;
+	private static final int BOOKINGS = 500;
+	private static final int DOCTORS = 8;
+
+	@Autowired private AppointmentService appointmentService;
+	@Autowired private DoctorRepo doctorRepo;
+	@Autowired private PatientRepo patientRepo;
+	@Autowired private UserRepo userRepo;
+	@Autowired private RoleRepo roleRepo;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	// the resolver is request scoped and there is no request on the worker threads
+	@MockitoBean private CurrentUserResolver currentUserResolver;
+	@MockitoBean private NotificationService notificationService;
+
+	private BookingParties parties;
+	private final List<Doctor> doctors = new ArrayList<>();
+	private Patient patient;
+
+	@BeforeEach
+	void setUp() {
+		parties = new BookingParties(doctorRepo, patientRepo, userRepo, roleRepo, jdbcTemplate);
+		for (int i = 0; i < DOCTORS; i++) {
+			doctors.add(parties.newDoctor());
+		}
+		patient = parties.newPatient();
+
+		when(currentUserResolver.findCurrentPatient()).thenReturn(Optional.of(patient));
+	}
+
+	@AfterEach
+	void tearDown() {
+		doctors.forEach(parties::delete);
+		parties.delete(patient);
+	}
+
+	@Test
+	void measureLockedBookingThroughput() throws Exception {
+		// one warm-up round so connection pool, JIT and Hibernate caches do not count against the first run
+		book(doctors.subList(0, 1), LocalDateTime.now().plusDays(400));
+
+		long oneDoctor = book(doctors.subList(0, 1), LocalDateTime.now().plusDays(30));
+		long spread = book(doctors, LocalDateTime.now().plusDays(200));
+
+		report("One doctor", oneDoctor);
+		report("Spread over " + DOCTORS + " doctors", spread);
+	}
+
+	//books BOOKINGS free slots round-robin over the doctors and returns the elapsed nanoseconds
+	private long book(List<Doctor> targets, LocalDateTime from) throws Exception {
+		LocalDateTime base = from.truncatedTo(ChronoUnit.HOURS);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> results = new ArrayList<>();
+
+		for (int i = 0; i < BOOKINGS; i++) {
+			Doctor doctor = targets.get(i % targets.size());
+			// two hours apart per doctor so the one-hour buffer never makes two bookings clash
+			LocalDateTime slot = base.plusHours(2L * (i / targets.size()));
+			results.add(pool.submit(() -> {
+				start.await();
+				return appointmentService.bookAppointment(AppointmentDTO.builder()
+						.doctorId(doctor.getId())
+						.startTime(slot)
+						.purposeOfConsultation("Booking benchmark")
+						.build());
+			}));
+		}
+
+		long startedAt = System.nanoTime();
+		start.countDown();
+		for (Future<?> result : results) {
+			// every slot is free, so a failure here is a bug rather than a lost race
+			assertThat(result.get(120, TimeUnit.SECONDS)).isNotNull();
+		}
+		long elapsed = System.nanoTime() - startedAt;
+		pool.shutdown();
+		return elapsed;
+	}
+
+	private static void report(String label, long elapsedNanos) {
+		System.out.printf("%s: %d bookings in %d ms (%.0f bookings/s)%n", label, BOOKINGS,
+				TimeUnit.NANOSECONDS.toMillis(elapsedNanos), BOOKINGS / (elapsedNanos / 1_000_000_000.0));
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.dat.appointment.service;
+
+import com.example.dat.appointment.dto.AppointmentDTO;
+import com.example.dat.appointment.dto.ScheduledSlot;
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.exceptions.ConflictException;
+import com.example.dat.notification.service.NotificationService;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.role.repo.RoleRepo;
+import com.example.dat.support.BookingParties;
+import com.example.dat.support.BookingTestDatabase;
+import com.example.dat.users.repo.UserRepo;
+import com.example.dat.users.service.CurrentUserResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test for the whole booking path: hundreds of simultaneous bookAppointment calls against one
+ * doctor, through the schedule index, DoctorBookingLocks, the doctor row lock and the conflict query on
+ * a real datasource, must produce exactly one winner per slot and a ConflictException for every loser.
+ * Nothing here is transactional, so each booking commits like it does in production, into the scratch
+ * schema of {@link BookingTestDatabase}. Throughput is measured by AppointmentBookingBenchmark.
+ */
+@SpringBootTest(properties = {BookingTestDatabase.URL, BookingTestDatabase.SCHEMA, BookingTestDatabase.LOCK_TIMEOUT})
+class AppointmentBookingConcurrencyTests {
+
+	private static final int THREADS = 32;
+	private static final int BOOKINGS = 300;
+	private static final int SLOTS = 10;
+
+	@Autowired private AppointmentService appointmentService;
+	@Autowired private AppointmentRepo appointmentRepo;
+	@Autowired private DoctorRepo doctorRepo;
+	@Autowired private PatientRepo patientRepo;
+	@Autowired private UserRepo userRepo;
+	@Autowired private RoleRepo roleRepo;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	// the resolver is request scoped and there is no request on the worker threads
+	@MockitoBean private CurrentUserResolver currentUserResolver;
+	@MockitoBean private NotificationService notificationService;
+
+	private BookingParties parties;
+	private Doctor doctor;
+	private Patient patient;
+
+	@BeforeEach
+	void setUp() {
+		parties = new BookingParties(doctorRepo, patientRepo, userRepo, roleRepo, jdbcTemplate);
+		doctor = parties.newDoctor();
+		patient = parties.newPatient();
+
+		when(currentUserResolver.findCurrentPatient()).thenReturn(Optional.of(patient));
+	}
+
+	@AfterEach
+	void tearDown() {
+		parties.delete(doctor);
+		parties.delete(patient);
+	}
+
+	@Test
+	void exactlyOneWinnerPerSlotAndLosersGetConflict() throws Exception {
+		// slots are two hours apart so the one-hour buffer never makes neighbouring slots clash
+		LocalDateTime base = LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> results = new ArrayList<>();
+
+		for (int i = 0; i < BOOKINGS; i++) {
+			LocalDateTime slot = base.plusHours(2L * (i % SLOTS));
+			results.add(pool.submit(() -> {
+				start.await();
+				return appointmentService.bookAppointment(AppointmentDTO.builder()
+						.doctorId(doctor.getId())
+						.startTime(slot)
+						.purposeOfConsultation("Concurrency test")
+						.build());
+			}));
+		}
+		start.countDown();
+
+		int winners = 0;
+		for (Future<?> result : results) {
+			try {
+				result.get(60, TimeUnit.SECONDS);
+				winners++;
+			} catch (ExecutionException e) {
+				assertThat(e.getCause()).isInstanceOf(ConflictException.class);
+			}
+		}
+		pool.shutdown();
+
+		List<LocalDateTime> booked = appointmentRepo.findScheduledSlotsOverlapping(
+						doctor.getId(), base.minusHours(1), base.plusHours(2L * SLOTS + 1))
+				.stream()
+				.map(ScheduledSlot::startTime)
+				.toList();
+
+		assertThat(winners).isEqualTo(SLOTS);
+		assertThat(booked).hasSize(SLOTS).doesNotHaveDuplicates();
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.dat.appointment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the stripe locks alone; the one-winner-per-slot guarantee of the full booking path is
+ * covered against a real datasource by AppointmentBookingConcurrencyTests.
+ */
+class DoctorBookingLocksTests {
+
+	@Test
+	void differentDoctorsDoNotBlockEachOther() throws Exception {
+		DoctorBookingLocks locks = new DoctorBookingLocks(64, 5_000);
+		CountDownLatch firstHolding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		Future<?> holder = pool.submit(() -> locks.withDoctorLock(1L, () -> {
+			firstHolding.countDown();
+			await(release);
+			return null;
+		}));
+
+		firstHolding.await(5, TimeUnit.SECONDS);
+		Future<String> other = pool.submit(() -> locks.withDoctorLock(2L, () -> "booked"));
+
+		assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("booked");
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		pool.shutdown();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.dat.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTests {
+
+	@Test
+	void evictsOldestOnceOverBound() {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(3, Duration.ofMinutes(1));
+
+		for (int i = 0; i < 10; i++) {
+			cache.put("k" + i, i);
+		}
+
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.get("k6")).isNull();
+		assertThat(cache.get("k9")).isEqualTo(9);
+		assertThat(cache.getEvictions()).isEqualTo(7);
+	}
+
+	@Test
+	void dropsExpiredEntryOnRead() throws Exception {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+		cache.put("short", 1, Duration.ofMillis(5));
+		cache.put("long", 2);
+
+		Thread.sleep(20);
+
+		assertThat(cache.get("short")).isNull();
+		assertThat(cache.get("long")).isEqualTo(2);
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void removedAndReplacedKeysLeaveNothingBehind() {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1));
+
+		// churn one key many times; the bound must still hold exactly the live keys
+		for (int i = 0; i < 1_000; i++) {
+			cache.put("churn", i);
+			cache.remove("churn");
+		}
+		cache.put("a", 1);
+		cache.put("a", 2);
+		cache.put("b", 3);
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("a")).isEqualTo(2);
+		assertThat(cache.getEvictions()).isZero();
+	}
+
+	@Test
+	void nonPositiveTtlIsNotCached() {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ZERO);
+		cache.put("k", 1);
+		cache.put("j", 2, Duration.ofSeconds(-1));
+
+		assertThat(cache.size()).isZero();
+	}
+}
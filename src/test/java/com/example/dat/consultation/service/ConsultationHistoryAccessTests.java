@@ -0,0 +1,98 @@
+package com.example.dat.consultation.service;
+
+import com.example.dat.appointment.repo.AppointmentRepo;
+import com.example.dat.consultation.repo.ConsultationRepo;
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.exceptions.NotFoundException;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.users.service.CurrentUserResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Who may page through a patient's consultation history: the patient themself, or a doctor who has had
+ * an appointment with them. Everyone else gets the same 404 as for an unknown patient.
+ */
+class ConsultationHistoryAccessTests {
+
+	private static final Long PATIENT_ID = 7L;
+
+	private ConsultationRepo consultationRepo;
+	private AppointmentRepo appointmentRepo;
+	private CurrentUserResolver currentUserResolver;
+	private ConsultationService consultationService;
+
+	@BeforeEach
+	void setUp() {
+		consultationRepo = mock(ConsultationRepo.class);
+		appointmentRepo = mock(AppointmentRepo.class);
+		currentUserResolver = mock(CurrentUserResolver.class);
+		PatientRepo patientRepo = mock(PatientRepo.class);
+
+		when(patientRepo.existsById(PATIENT_ID)).thenReturn(true);
+		when(consultationRepo.findPatientHistoryPage(any(), any(), any())).thenReturn(List.of());
+		when(currentUserResolver.findCurrentPatient()).thenReturn(Optional.empty());
+		when(currentUserResolver.findCurrentDoctor()).thenReturn(Optional.empty());
+
+		consultationService = new ConsultationServiceImpl(consultationRepo, appointmentRepo, currentUserResolver,
+				patientRepo, null);
+	}
+
+	@Test
+	void otherPatientGetsNotFound() {
+		when(currentUserResolver.findCurrentPatient()).thenReturn(Optional.of(patient(8L)));
+
+		assertThatThrownBy(() -> consultationService.getConsultationHistoryForPatient(PATIENT_ID, null, null))
+				.isInstanceOf(NotFoundException.class);
+		verify(consultationRepo, never()).findPatientHistoryPage(any(), any(), any());
+	}
+
+	@Test
+	void doctorWithoutAppointmentGetsNotFound() {
+		when(currentUserResolver.findCurrentDoctor()).thenReturn(Optional.of(doctor(3L)));
+		when(appointmentRepo.existsByDoctorIdAndPatientId(3L, PATIENT_ID)).thenReturn(false);
+
+		assertThatThrownBy(() -> consultationService.getConsultationHistoryForPatient(PATIENT_ID, null, null))
+				.isInstanceOf(NotFoundException.class);
+		verify(consultationRepo, never()).findPatientHistoryPage(any(), any(), any());
+	}
+
+	@Test
+	void patientReadsOwnHistory() {
+		when(currentUserResolver.findCurrentPatient()).thenReturn(Optional.of(patient(PATIENT_ID)));
+
+		assertThat(consultationService.getConsultationHistoryForPatient(PATIENT_ID, null, null).getStatusCode())
+				.isEqualTo(200);
+		verify(appointmentRepo, never()).existsByDoctorIdAndPatientId(anyLong(), anyLong());
+	}
+
+	@Test
+	void treatingDoctorReadsHistory() {
+		when(currentUserResolver.findCurrentDoctor()).thenReturn(Optional.of(doctor(3L)));
+		when(appointmentRepo.existsByDoctorIdAndPatientId(3L, PATIENT_ID)).thenReturn(true);
+
+		assertThat(consultationService.getConsultationHistoryForPatient(PATIENT_ID, null, null).getStatusCode())
+				.isEqualTo(200);
+	}
+
+	private static Patient patient(Long id) {
+		return Patient.builder().id(id).build();
+	}
+
+	private static Doctor doctor(Long id) {
+		return Doctor.builder().id(id).build();
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.dat.doctor.service;
+
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
+import com.example.dat.enums.Specialization;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Suggest lookup latency at 10k and 100k doctors, for short, long, accented and missing prefixes,
+ * plus the cost of applying one profile update to the index. Run with -Dbenchmarks=true.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class DoctorSuggestIndexBenchmark {
+
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 100_000;
+
+	private static final String[] SYLLABLES = {"an", "be", "ca", "do", "el", "fé", "ga", "hi", "jo", "ka",
+			"lu", "ma", "nú", "or", "pa", "ri", "sa", "to", "vi", "ze"};
+
+	private static final String[] QUERIES = {"m", "ma", "mari", "Fé", "jose", "card", "maria lu", "qqq"};
+
+	@Test
+	void lookupLatency() {
+		for (int doctors : new int[]{10_000, 100_000}) {
+			DoctorSuggestIndex index = new DoctorSuggestIndex(null, 10);
+			index.rebuild(doctors(doctors));
+
+			for (String query : QUERIES) {
+				for (int i = 0; i < WARMUP; i++) {
+					index.suggest(query, 10);
+				}
+				long start = System.nanoTime();
+				int found = 0;
+				for (int i = 0; i < ITERATIONS; i++) {
+					found = index.suggest(query, 10).size();
+				}
+				double micros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+				System.out.printf("%,7d doctors (%,d keys)  q=%-10s %2d hits  %6.2f us%n",
+						doctors, index.size(), query, found, micros);
+			}
+
+			long start = System.nanoTime();
+			index.replace(1L, new DoctorSummaryDTO(1L, "Renamed", "Doctor", Specialization.CARDIOLOGY));
+			System.out.printf("%,7d doctors  one profile update %8.1f us%n", doctors, (System.nanoTime() - start) / 1_000.0);
+		}
+	}
+
+	private static List<DoctorSummaryDTO> doctors(int count) {
+		Random random = new Random(42);
+		Specialization[] specializations = Specialization.values();
+		List<DoctorSummaryDTO> doctors = new ArrayList<>(count);
+		for (long id = 1; id <= count; id++) {
+			doctors.add(new DoctorSummaryDTO(id, name(random), name(random),
+					specializations[random.nextInt(specializations.length)]));
+		}
+		return doctors;
+	}
+
+	private static String name(Random random) {
+		StringBuilder name = new StringBuilder();
+		for (int i = 0, length = 2 + random.nextInt(3); i < length; i++) {
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+		return name.toString();
+	}
+}
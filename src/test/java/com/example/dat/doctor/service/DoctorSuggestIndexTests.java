@@ -0,0 +1,87 @@
+package com.example.dat.doctor.service;
+
+import com.example.dat.doctor.dto.DoctorSummaryDTO;
+import com.example.dat.enums.Specialization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DoctorSuggestIndexTests {
+
+	private DoctorSuggestIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new DoctorSuggestIndex(null, 10);
+		index.rebuild(List.of(
+				doctor(1L, "José", "Núñez", Specialization.CARDIOLOGY),
+				doctor(2L, "Anna", "Smith", Specialization.PEDIATRICS),
+				doctor(3L, "Brian", "Smith", Specialization.DERMATOLOGY)));
+	}
+
+	@Test
+	void foldsCaseAccentsAndWhitespace() {
+		assertThat(DoctorSuggestIndex.fold("  José  Núñez ")).isEqualTo("jose nunez");
+
+		assertThat(ids(index.suggest("NUN", null))).containsExactly(1L);
+		assertThat(ids(index.suggest("jose  nu", null))).containsExactly(1L);
+		assertThat(ids(index.suggest("Núñ", null))).containsExactly(1L);
+	}
+
+	@Test
+	void duplicateKeysListEveryDoctorOnce() {
+		// both Smiths share the key, ties are broken by id
+		assertThat(ids(index.suggest("smith", null))).containsExactly(2L, 3L);
+
+		// "Anna Annerson" matches "ann" through first name, last name and full name but is listed once
+		index.replace(4L, doctor(4L, "Anna", "Annerson", Specialization.NEUROLOGY));
+		assertThat(ids(index.suggest("ann", null))).containsExactly(2L, 4L);
+	}
+
+	@Test
+	void renameDropsTheOldKeys() {
+		index.replace(2L, doctor(2L, "Anna", "Jones", Specialization.PEDIATRICS));
+
+		assertThat(ids(index.suggest("smith", null))).containsExactly(3L);
+		assertThat(ids(index.suggest("jones", null))).containsExactly(2L);
+		assertThat(index.suggest("anna jones", null)).singleElement()
+				.extracting(DoctorSummaryDTO::getLastName).isEqualTo("Jones");
+	}
+
+	@Test
+	void removalDropsEveryKeyOfTheDoctor() {
+		int before = index.size();
+
+		index.replace(1L, null);
+
+		assertThat(index.suggest("jose", null)).isEmpty();
+		assertThat(index.suggest("nunez", null)).isEmpty();
+		assertThat(index.suggest("cardio", null)).isEmpty();
+		// first name, last name, full name and specialization
+		assertThat(index.size()).isEqualTo(before - 4);
+	}
+
+	@Test
+	void specializationLabelIsSearchableAndLimitIsCapped() {
+		index.rebuild(List.of(
+				doctor(1L, "Ada", "Lovelace", Specialization.GENERAL_PRACTICE),
+				doctor(2L, "Alan", "Turing", Specialization.GENERAL_PRACTICE),
+				doctor(3L, "Grace", "Hopper", Specialization.GENERAL_PRACTICE)));
+
+		assertThat(ids(index.suggest("general pr", null))).containsExactly(1L, 2L, 3L);
+		assertThat(ids(index.suggest("general", 2))).containsExactly(1L, 2L);
+		assertThat(index.suggest("general", 50)).hasSize(3);
+		assertThat(index.suggest("   ", null)).isEmpty();
+	}
+
+	private static List<Long> ids(List<DoctorSummaryDTO> doctors) {
+		return doctors.stream().map(DoctorSummaryDTO::getId).toList();
+	}
+
+	private static DoctorSummaryDTO doctor(Long id, String firstName, String lastName, Specialization specialization) {
+		return new DoctorSummaryDTO(id, firstName, lastName, specialization);
+	}
+}
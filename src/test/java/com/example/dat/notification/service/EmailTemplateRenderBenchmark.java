@@ -0,0 +1,82 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.config.AppConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Render time of the booking and cancellation emails with typical variables: the first render on a
+ * fresh engine (what the first email after a deploy used to pay) against a precompiled engine.
+ * Run with -Dbenchmarks=true.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EmailTemplateRenderBenchmark {
+
+	private static final int WARMUP = 2_000;
+	private static final int ITERATIONS = 10_000;
+
+	private static final Map<String, Map<String, Object>> TEMPLATES = Map.of(
+			"patient-appointment", Map.of(
+					"patientName", "Jane Doe",
+					"doctorName", "John Smith",
+					"appointmentTime", "Monday, Mar 02, 2026 at 10:00 AM",
+					"isVirtual", true,
+					"meetingLink", "https://meet.jit.si/dat-1a2b3c4d5e",
+					"purposeOfConsultation", "Follow-up"),
+			"doctor-appointment", Map.of(
+					"doctorName", "John Smith",
+					"patientFullName", "Jane Doe",
+					"appointmentTime", "Monday, Mar 02, 2026 at 10:00 AM",
+					"isVirtual", true,
+					"meetingLink", "https://meet.jit.si/dat-1a2b3c4d5e",
+					"initialSymptoms", "Headache and fatigue",
+					"purposeOfConsultation", "Follow-up"),
+			"appointment-cancellation", Map.of(
+					"cancellingPartyName", "Jane Doe",
+					"appointmentTime", "Monday, Mar 02, 2026 at 10:00 AM",
+					"doctorName", "Smith",
+					"patientFullName", "Jane Doe",
+					"recipientName", "John Smith")
+	);
+
+	@Test
+	void renderTimes() throws Exception {
+		for (Map.Entry<String, Map<String, Object>> template : TEMPLATES.entrySet()) {
+			String name = template.getKey();
+			Map<String, Object> variables = template.getValue();
+
+			// cold: fresh engine, nothing parsed yet
+			EmailTemplateRenderer cold = new EmailTemplateRenderer(engine(), false, 0, Duration.ZERO);
+			long start = System.nanoTime();
+			cold.render(name, variables);
+			double firstRenderMicros = (System.nanoTime() - start) / 1_000.0;
+
+			// precompiled: what the application does at startup
+			EmailTemplateRenderer warm = new EmailTemplateRenderer(engine(), false, 0, Duration.ZERO);
+			warm.precompile();
+			start = System.nanoTime();
+			warm.render(name, variables);
+			double precompiledFirstMicros = (System.nanoTime() - start) / 1_000.0;
+
+			for (int i = 0; i < WARMUP; i++) {
+				warm.render(name, variables);
+			}
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				warm.render(name, variables);
+			}
+			double steadyMicros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+			System.out.printf("%-26s first render %8.1f us, first after precompile %8.1f us, steady state %6.1f us%n",
+					name, firstRenderMicros, precompiledFirstMicros, steadyMicros);
+		}
+	}
+
+	private static SpringTemplateEngine engine() {
+		return new AppConfig().templateEngine(Duration.ZERO, 50);
+	}
+}
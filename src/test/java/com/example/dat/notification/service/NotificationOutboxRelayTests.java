@@ -0,0 +1,173 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.enums.NotificationStatus;
+import com.example.dat.notification.entity.NotificationOutbox;
+import com.example.dat.notification.repo.NotificationOutboxRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxRelayTests {
+
+	private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+	private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+	private static final int MAX_ATTEMPTS = 3;
+
+	private NotificationOutboxRepo notificationOutboxRepo;
+	private NotificationService notificationService;
+	private NotificationExecutor notificationExecutor;
+	private NotificationOutboxRelay relay;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		notificationOutboxRepo = mock(NotificationOutboxRepo.class);
+		notificationService = mock(NotificationService.class);
+		notificationExecutor = mock(NotificationExecutor.class);
+
+		// run every transactional section inline
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+
+		relay = new NotificationOutboxRelay(notificationOutboxRepo, notificationService, notificationExecutor,
+				null, transactionTemplate, null);
+		ReflectionTestUtils.setField(relay, "batchSize", 50);
+		ReflectionTestUtils.setField(relay, "chunkSize", 10);
+		ReflectionTestUtils.setField(relay, "lease", Duration.ofMinutes(5));
+		ReflectionTestUtils.setField(relay, "maxAttempts", MAX_ATTEMPTS);
+		ReflectionTestUtils.setField(relay, "initialBackoff", INITIAL_BACKOFF);
+		ReflectionTestUtils.setField(relay, "maxBackoff", MAX_BACKOFF);
+	}
+
+	@Test
+	void backoffDoublesPerAttemptWithEqualJitter() {
+		for (int attempts = 1; attempts <= 5; attempts++) {
+			long ceiling = INITIAL_BACKOFF.toMillis() << (attempts - 1);
+			for (int i = 0; i < 1_000; i++) {
+				// equal jitter: half the delay is fixed, the other half random
+				assertThat(relay.backoff(attempts).toMillis()).isBetween(ceiling / 2, ceiling);
+			}
+		}
+	}
+
+	@Test
+	void backoffIsCappedAtMaxBackoff() {
+		long cap = MAX_BACKOFF.toMillis();
+		// 30s << 7 is past an hour, and large attempt counts must not overflow the shift
+		for (int attempts : new int[] {8, 21, 64, Integer.MAX_VALUE}) {
+			for (int i = 0; i < 1_000; i++) {
+				assertThat(relay.backoff(attempts).toMillis()).isBetween(cap / 2, cap);
+			}
+		}
+	}
+
+	@Test
+	void failedRowIsRescheduledWithOneMoreAttempt() {
+		NotificationOutbox row = row(1L, NotificationStatus.PENDING, 0);
+		when(notificationOutboxRepo.findAllById(anyCollection())).thenReturn(List.of(row));
+		LocalDateTime now = LocalDateTime.now();
+
+		List<Long> dead = relay.scheduleRetries(Map.of(1L, "MailSendException: timeout"), now);
+
+		assertThat(dead).isEmpty();
+		assertThat(row.getStatus()).isEqualTo(NotificationStatus.FAILED);
+		assertThat(row.getAttempts()).isEqualTo(1);
+		assertThat(row.getLastError()).isEqualTo("MailSendException: timeout");
+		assertThat(row.getLockedUntil()).isNull();
+		assertThat(row.getNextAttemptAt()).isBetween(now.plus(INITIAL_BACKOFF.dividedBy(2)), now.plus(INITIAL_BACKOFF));
+	}
+
+	@Test
+	void rowOutOfAttemptsIsDeadLettered() {
+		NotificationOutbox retried = row(1L, NotificationStatus.FAILED, MAX_ATTEMPTS - 2);
+		NotificationOutbox lastAttempt = row(2L, NotificationStatus.FAILED, MAX_ATTEMPTS - 1);
+		when(notificationOutboxRepo.findAllById(anyCollection())).thenReturn(List.of(retried, lastAttempt));
+		LocalDateTime now = LocalDateTime.now();
+
+		List<Long> dead = relay.scheduleRetries(Map.of(1L, "first", 2L, "second"), now);
+
+		assertThat(dead).containsExactly(2L);
+		assertThat(retried.getStatus()).isEqualTo(NotificationStatus.FAILED);
+		assertThat(retried.getAttempts()).isEqualTo(MAX_ATTEMPTS - 1);
+		assertThat(lastAttempt.getStatus()).isEqualTo(NotificationStatus.DEAD);
+		assertThat(lastAttempt.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+		assertThat(lastAttempt.getNextAttemptAt()).isNull();
+		assertThat(lastAttempt.getProcessedAt()).isEqualTo(now);
+	}
+
+	@Test
+	void relayMarksSentAndDeadLettersExhaustedRows() {
+		NotificationOutbox sent = row(1L, NotificationStatus.PENDING, 0);
+		NotificationOutbox exhausted = row(2L, NotificationStatus.FAILED, MAX_ATTEMPTS - 1);
+		when(notificationOutboxRepo.findClaimable(anyCollection(), any(), any())).thenReturn(List.of(sent, exhausted));
+		when(notificationOutboxRepo.findAllById(anyCollection())).thenReturn(List.of(exhausted));
+		when(notificationService.deliverBatch(anyList()))
+				.thenReturn(Arrays.<Exception>asList(null, new IllegalStateException("rejected")));
+		runTasksInline();
+
+		relay.relay();
+
+		verify(notificationOutboxRepo).markProcessed(eq(List.of(1L)), eq(NotificationStatus.SENT), any(LocalDateTime.class));
+		assertThat(exhausted.getStatus()).isEqualTo(NotificationStatus.DEAD);
+		assertThat(exhausted.getLastError()).isEqualTo("IllegalStateException: rejected");
+		verify(notificationService).recordDeadLetters(anyList());
+	}
+
+	@Test
+	void fullPoolWithSpillPolicyReleasesEveryClaim() {
+		List<NotificationOutbox> claimed = new ArrayList<>();
+		for (long id = 1; id <= 25; id++) {
+			claimed.add(row(id, NotificationStatus.PENDING, 0));
+		}
+		when(notificationOutboxRepo.findClaimable(anyCollection(), any(), any())).thenReturn(claimed);
+		when(notificationExecutor.submit(any())).thenReturn(null);
+		when(notificationExecutor.getOverflowPolicy()).thenReturn(NotificationExecutor.OverflowPolicy.SPILL);
+
+		relay.relay();
+
+		// every chunk was refused, so the whole batch goes back to the outbox without burning an attempt
+		verify(notificationOutboxRepo).releaseClaims(claimed.stream().map(NotificationOutbox::getId).toList());
+		verify(notificationOutboxRepo, never()).findAllById(anyCollection());
+		verify(notificationOutboxRepo, never()).markProcessed(anyCollection(), any(), any());
+		assertThat(claimed).allSatisfy(row -> assertThat(row.getAttempts()).isZero());
+	}
+
+	private void runTasksInline() {
+		when(notificationExecutor.submit(any())).thenAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return CompletableFuture.completedFuture(null);
+		});
+	}
+
+	private static NotificationOutbox row(Long id, NotificationStatus status, int attempts) {
+		return NotificationOutbox.builder()
+				.id(id)
+				.recipient("patient" + id + "@dat.test")
+				.subject("Appointment reminder")
+				.message("See you soon")
+				.status(status)
+				.attempts(attempts)
+				.build();
+	}
+}
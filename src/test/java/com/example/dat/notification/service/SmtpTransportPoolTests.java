@@ -0,0 +1,117 @@
+package com.example.dat.notification.service;
+
+import com.example.dat.support.FakeSmtpServer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmtpTransportPoolTests {
+
+	private static final int MESSAGES = 200;
+
+	private FakeSmtpServer server;
+	private JavaMailSenderImpl mailSender;
+
+	@BeforeEach
+	void startServer() throws Exception {
+		// 5 ms per connection stands in for the STARTTLS + AUTH round trips of a real server
+		server = new FakeSmtpServer(5);
+
+		mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(server.getPort());
+		Properties properties = new Properties();
+		properties.put("mail.smtp.from", "noreply@dat.test");
+		mailSender.setJavaMailProperties(properties);
+	}
+
+	@AfterEach
+	void stopServer() throws Exception {
+		server.close();
+	}
+
+	@Test
+	void sendsBatchOverOneConnection() throws Exception {
+		SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, 1_000, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		List<Exception> results = pool.sendBatch(messages(MESSAGES, "patient"));
+
+		assertThat(results).hasSize(MESSAGES).containsOnlyNulls();
+		assertThat(server.getMessageCount()).isEqualTo(MESSAGES);
+		assertThat(server.getConnectionCount()).isEqualTo(1);
+		pool.shutdown();
+	}
+
+	@Test
+	void reusesConnectionAcrossBatchesAndRotatesAfterLimit() throws Exception {
+		SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, 50, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		for (int i = 0; i < 4; i++) {
+			pool.sendBatch(messages(25, "patient"));
+		}
+
+		// 100 messages at 50 per connection
+		assertThat(server.getMessageCount()).isEqualTo(100);
+		assertThat(server.getConnectionCount()).isEqualTo(2);
+		pool.shutdown();
+	}
+
+	@Test
+	void rejectedRecipientFailsOnlyThatMessage() throws Exception {
+		SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, 1_000, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		List<MimeMessage> batch = new ArrayList<>(messages(2, "patient"));
+		batch.add(1, message("reject@dat.test"));
+
+		List<Exception> results = pool.sendBatch(batch);
+
+		assertThat(results.get(0)).isNull();
+		assertThat(results.get(1)).isInstanceOf(MessagingException.class);
+		assertThat(results.get(2)).isNull();
+		assertThat(server.getMessageCount()).isEqualTo(2);
+		assertThat(server.getConnectionCount()).isEqualTo(1);
+		pool.shutdown();
+	}
+
+	@Test
+	void pooledDispatchOpensOneConnectionWhereUnpooledOpensOnePerMessage() throws Exception {
+		for (MimeMessage message : messages(MESSAGES, "unpooled")) {
+			mailSender.send(message);
+		}
+
+		SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, 1_000, Duration.ofMinutes(1), Duration.ofSeconds(5));
+		for (int i = 0; i < MESSAGES; i += 20) {
+			pool.sendBatch(messages(20, "pooled"));
+		}
+		pool.shutdown();
+
+		assertThat(server.getMessageCount()).isEqualTo(2 * MESSAGES);
+		assertThat(server.getConnectionCount()).isEqualTo(MESSAGES + 1);
+	}
+
+	private List<MimeMessage> messages(int count, String prefix) throws MessagingException {
+		List<MimeMessage> messages = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			messages.add(message(prefix + i + "@dat.test"));
+		}
+		return messages;
+	}
+
+	private MimeMessage message(String recipient) throws MessagingException {
+		MimeMessage message = mailSender.createMimeMessage();
+		message.setRecipients(MimeMessage.RecipientType.TO, recipient);
+		message.setSubject("DAT Health: Your Appointment is Confirmed");
+		message.setText("Your appointment is confirmed.");
+		return message;
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.dat.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomUserDetailsServiceTests {
+
+	private final CustomUserDetailsService service =
+			new CustomUserDetailsService(null, false, Duration.ofMinutes(5), 100, Duration.ofHours(1).toMillis());
+
+	@Test
+	void tokensIssuedBeforeAUserChangeAreStale() {
+		Instant issuedBefore = Instant.now().minusSeconds(10);
+
+		assertThat(service.isStale("doctor@dat.test", issuedBefore)).isFalse();
+
+		service.onPrincipalChanged(PrincipalChangedEvent.forUser("doctor@dat.test"));
+
+		assertThat(service.isStale("doctor@dat.test", issuedBefore)).isTrue();
+		assertThat(service.isStale("patient@dat.test", issuedBefore)).isFalse();
+		assertThat(service.isStale("doctor@dat.test", Instant.now().plusSeconds(1))).isFalse();
+	}
+
+	@Test
+	void roleChangeMakesEveryOlderTokenStale() {
+		Instant issuedBefore = Instant.now().minusSeconds(10);
+
+		service.onPrincipalChanged(PrincipalChangedEvent.allUsers());
+
+		assertThat(service.isStale("doctor@dat.test", issuedBefore)).isTrue();
+		assertThat(service.isStale("patient@dat.test", issuedBefore)).isTrue();
+		assertThat(service.isStale("patient@dat.test", null)).isTrue();
+	}
+}
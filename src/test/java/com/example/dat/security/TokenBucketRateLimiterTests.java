@@ -0,0 +1,103 @@
+package com.example.dat.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketRateLimiterTests {
+
+	private static final int THREADS = 32;
+	private static final int ATTEMPTS_PER_THREAD = 2_000;
+
+	@Test
+	void admitsExactlyCapacityUnderContention() throws Exception {
+		// refill is far slower than the test so only the initial capacity can ever be admitted
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, Duration.ofDays(1), Duration.ofMinutes(30));
+
+		long admitted = hammer(limiter, List.of("user@example.com"));
+
+		assertThat(admitted).isEqualTo(100);
+	}
+
+	@Test
+	void keepsBucketsIndependentPerKeyUnderContention() throws Exception {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, Duration.ofDays(1), Duration.ofMinutes(30));
+
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			keys.add("10.0.0." + i);
+		}
+
+		long admitted = hammer(limiter, keys);
+
+		assertThat(admitted).isEqualTo(10L * keys.size());
+		assertThat(limiter.size()).isEqualTo(keys.size());
+	}
+
+	@Test
+	void refillsAndReportsRetryAfter() {
+		AtomicLong clock = new AtomicLong();
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2), Duration.ofMinutes(30), clock::get);
+
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isZero();
+
+		long wait = limiter.tryAcquire("a");
+		assertThat(wait).isCloseTo(TimeUnit.SECONDS.toNanos(1), within(1_000L));
+
+		clock.addAndGet(wait + 1_000);
+		assertThat(limiter.tryAcquire("a")).isZero();
+	}
+
+	@Test
+	void evictsOnlyIdleFullBuckets() {
+		AtomicLong clock = new AtomicLong();
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofMinutes(1), Duration.ofMinutes(30), clock::get);
+
+		limiter.tryAcquire("idle");
+		clock.addAndGet(TimeUnit.MINUTES.toNanos(31));
+		limiter.tryAcquire("active");
+
+		assertThat(limiter.evictIdle()).isEqualTo(1);
+		assertThat(limiter.size()).isEqualTo(1);
+	}
+
+	private long hammer(TokenBucketRateLimiter limiter, List<String> keys) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> results = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+			results.add(pool.submit(() -> {
+				start.await();
+				long admitted = 0;
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					if (limiter.tryAcquire(keys.get((i + offset) % keys.size())) == 0) {
+						admitted++;
+					}
+				}
+				return admitted;
+			}));
+		}
+
+		start.countDown();
+		long total = 0;
+		for (Future<Long> result : results) {
+			total += result.get(30, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+		return total;
+	}
+}
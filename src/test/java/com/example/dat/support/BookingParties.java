@@ -0,0 +1,83 @@
+package com.example.dat.support;
+
+import com.example.dat.doctor.entity.Doctor;
+import com.example.dat.doctor.repo.DoctorRepo;
+import com.example.dat.enums.Specialization;
+import com.example.dat.patient.entity.Patient;
+import com.example.dat.patient.repo.PatientRepo;
+import com.example.dat.role.entity.Role;
+import com.example.dat.role.repo.RoleRepo;
+import com.example.dat.users.entity.User;
+import com.example.dat.users.repo.UserRepo;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates the doctors and patients a booking test needs and deletes them, with their appointments,
+ * afterwards. Deletes are plain SQL: removing the users through JPA would cascade to the shared roles.
+ */
+public class BookingParties {
+
+	private final DoctorRepo doctorRepo;
+	private final PatientRepo patientRepo;
+	private final UserRepo userRepo;
+	private final RoleRepo roleRepo;
+	private final JdbcTemplate jdbcTemplate;
+
+	public BookingParties(DoctorRepo doctorRepo, PatientRepo patientRepo, UserRepo userRepo, RoleRepo roleRepo,
+						  JdbcTemplate jdbcTemplate) {
+		this.doctorRepo = doctorRepo;
+		this.patientRepo = patientRepo;
+		this.userRepo = userRepo;
+		this.roleRepo = roleRepo;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public Doctor newDoctor() {
+		return doctorRepo.save(Doctor.builder()
+				.firstName("Race")
+				.lastName("Doctor")
+				.specialization(Specialization.CARDIOLOGY)
+				.user(newUser("DOCTOR"))
+				.build());
+	}
+
+	public Patient newPatient() {
+		return patientRepo.save(Patient.builder()
+				.firstName("Race")
+				.lastName("Patient")
+				.user(newUser("PATIENT"))
+				.build());
+	}
+
+	public void delete(Doctor doctor) {
+		jdbcTemplate.update("DELETE FROM appointments WHERE doctor_id = ?", doctor.getId());
+		jdbcTemplate.update("DELETE FROM doctors WHERE id = ?", doctor.getId());
+		deleteUser(doctor.getUser().getId());
+	}
+
+	public void delete(Patient patient) {
+		jdbcTemplate.update("DELETE FROM appointments WHERE patient_id = ?", patient.getId());
+		jdbcTemplate.update("DELETE FROM patients WHERE id = ?", patient.getId());
+		deleteUser(patient.getUser().getId());
+	}
+
+	private void deleteUser(Long userId) {
+		jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	private User newUser(String roleName) {
+		Role role = roleRepo.findByName(roleName)
+				.orElseGet(() -> roleRepo.save(Role.builder().name(roleName).build()));
+
+		return userRepo.save(User.builder()
+				.name(roleName.toLowerCase() + " user")
+				.email(UUID.randomUUID() + "@race.test")
+				.password("x")
+				.roles(List.of(role))
+				.build());
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.dat.support;
+
+/**
+ * Properties for SpringBootTests that commit real bookings. They point the datasource at a scratch
+ * schema, created on first use and dropped when the context closes, so the rows they write never land in
+ * the developer's database. Credentials still come from the main configuration.
+ */
+public final class BookingTestDatabase {
+
+	public static final String URL = "spring.datasource.url=jdbc:mysql://localhost:3306/doc_booking_test"
+			+ "?createDatabaseIfNotExist=true&rewriteBatchedStatements=true";
+
+	public static final String SCHEMA = "spring.jpa.hibernate.ddl-auto=create-drop";
+
+	// long enough that a thread queued behind hundreds of bookings for the same doctor never times out
+	public static final String LOCK_TIMEOUT = "appointments.booking.lock-timeout-ms=60000";
+
+	private BookingTestDatabase() {
+	}
+}
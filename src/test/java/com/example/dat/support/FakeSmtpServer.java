@@ -0,0 +1,118 @@
+package com.example.dat.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local SMTP stand-in: accepts any message, rejects recipients whose address starts with
+ * "reject", and counts connections and delivered messages. handshakeDelayMillis is slept before the
+ * greeting to stand in for the TLS and AUTH round trips a real server costs per connection.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+	private final long handshakeDelayMillis;
+
+	private final AtomicInteger connectionCount = new AtomicInteger();
+	private final AtomicInteger messageCount = new AtomicInteger();
+
+	public FakeSmtpServer(long handshakeDelayMillis) throws IOException {
+		this.handshakeDelayMillis = handshakeDelayMillis;
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		connections.execute(this::acceptLoop);
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	public int getMessageCount() {
+		return messageCount.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		connections.shutdownNow();
+	}
+
+	private void acceptLoop() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connectionCount.incrementAndGet();
+				connections.execute(() -> handle(socket));
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		try (socket;
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			 OutputStream out = socket.getOutputStream()) {
+
+			Thread.sleep(handshakeDelayMillis);
+			reply(out, "220 localhost fake ESMTP");
+
+			boolean rejectedRecipient = false;
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+				switch (command) {
+					case "EHLO", "HELO" -> reply(out, "250 localhost");
+					case "MAIL" -> {
+						rejectedRecipient = false;
+						reply(out, "250 OK");
+					}
+					case "RCPT" -> {
+						if (line.toLowerCase().contains("<reject")) {
+							rejectedRecipient = true;
+							reply(out, "550 No such user");
+						} else {
+							reply(out, "250 OK");
+						}
+					}
+					case "DATA" -> {
+						reply(out, "354 End data with <CR><LF>.<CR><LF>");
+						while ((line = in.readLine()) != null && !line.equals(".")) {
+							// message body is discarded
+						}
+						if (!rejectedRecipient) {
+							messageCount.incrementAndGet();
+						}
+						reply(out, "250 OK");
+					}
+					case "RSET", "NOOP" -> reply(out, "250 OK");
+					case "QUIT" -> {
+						reply(out, "221 Bye");
+						return;
+					}
+					default -> reply(out, "502 Command not implemented");
+				}
+			}
+		} catch (IOException | InterruptedException e) {
+			// client went away
+		}
+	}
+
+	private static void reply(OutputStream out, String response) throws IOException {
+		out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+		out.flush();
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.dat.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hibernate statement inspector that counts the SQL statements issued on the current thread.
+ * Register it with spring.jpa.properties.hibernate.session_factory.statement_inspector and wrap a
+ * call in {@link #assertWithinBudget} to fail when a method issues more statements than declared.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+	private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+	@Override
+	public String inspect(String sql) {
+		COUNT.set(COUNT.get() + 1);
+		return sql;
+	}
+
+	public static void reset() {
+		COUNT.set(0);
+	}
+
+	public static int count() {
+		return COUNT.get();
+	}
+
+	public static <T> T assertWithinBudget(String method, int budget, Supplier<T> call) {
+		reset();
+		T result = call.get();
+		int issued = count();
+		assertThat(issued)
+				.as("%s issued %d SQL statements, budget is %d", method, issued, budget)
+				.isLessThanOrEqualTo(budget);
+		return result;
+	}
+}